@@ -0,0 +1,149 @@
+package io.example;
+
+import io.example.wingplan.AircraftEntity;
+import io.example.wingplan.DayCalendarEntity;
+import io.example.wingplan.InstructorEntity;
+import io.example.wingplan.StudentEntity;
+import io.example.wingplan.TrainingSessionBookingAction;
+import io.example.wingplan.TrainingSessionEntity;
+import kalix.spring.testkit.KalixIntegrationTestKitSupport;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Mono;
+
+// Books sessions and checks what is left in the participants' day calendars.
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = Main.class)
+public class TrainingSessionCalendarIntegrationTest extends KalixIntegrationTestKitSupport {
+  private static final Duration timeout = Duration.ofSeconds(10);
+  private final LocalDate day = LocalDate.now(ZoneOffset.UTC).plusDays(30);
+
+  @Autowired
+  private WebClient webClient;
+
+  @Test
+  public void nonOverlappingSessionsStayScheduledTest() throws Exception {
+    createParticipants("student10", "instructor10", "aircraft10");
+    createParticipants("student11", "instructor10", "aircraft11");
+    var first = command("student10", "instructor10", "aircraft10", 540);
+    var second = command("student11", "instructor10", "aircraft11", 630);
+
+    Assertions.assertEquals("scheduled", book(first).status());
+    Assertions.assertEquals("scheduled", book(second).status());
+
+    // The subscriber reserves both again, which must neither fail nor cancel them.
+    var calendar = awaitCalendar("instructor", "instructor10", c -> c.reservations().size() == 2);
+    Assertions.assertEquals(2, calendar.reservations().size());
+    Thread.sleep(2000);
+    Assertions.assertNull(session(first).cancelledTime());
+    Assertions.assertNull(session(second).cancelledTime());
+  }
+
+  @Test
+  public void overlappingSessionIsRejectedTest() throws Exception {
+    createParticipants("student20", "instructor20", "aircraft20");
+    createParticipants("student21", "instructor20", "aircraft21");
+    var first = command("student20", "instructor20", "aircraft20", 540);
+    var overlapping = command("student21", "instructor20", "aircraft21", 600);
+
+    Assertions.assertEquals("scheduled", book(first).status());
+    Assertions.assertEquals("rejected", book(overlapping).status());
+
+    Assertions.assertNull(session(overlapping).studentId());
+    var calendar = awaitCalendar("instructor", "instructor20", c -> c.reservations().size() == 1);
+    Assertions.assertEquals(540, calendar.reservations().get(0).startMinute());
+    Assertions.assertTrue(awaitCalendar("student", "student21", c -> c.reservations().isEmpty()).reservations().isEmpty());
+  }
+
+  // Clients that schedule on the session path get the overlap as an error instead of an OK.
+  @Test
+  public void overlappingDirectScheduleIsRejectedTest() throws Exception {
+    createParticipants("student40", "instructor40", "aircraft40");
+    createParticipants("student41", "instructor40", "aircraft41");
+    var first = command("student40", "instructor40", "aircraft40", 540);
+    var overlapping = command("student41", "instructor40", "aircraft41", 600);
+
+    Assertions.assertEquals("OK", webClient.put().uri(sessionPath(first) + "/schedule").bodyValue(first)
+        .retrieve().bodyToMono(String.class).block(timeout));
+    var rejected = webClient.put().uri(sessionPath(overlapping) + "/schedule").bodyValue(overlapping)
+        .exchangeToMono(response -> Mono.just(response.statusCode())).block(timeout);
+    Assertions.assertTrue(rejected.is4xxClientError());
+
+    Assertions.assertNotNull(session(first).studentId());
+    Assertions.assertNull(session(overlapping).studentId());
+  }
+
+  @Test
+  public void cancelReleasesCalendarsTest() throws Exception {
+    createParticipants("student30", "instructor30", "aircraft30");
+    var session = command("student30", "instructor30", "aircraft30", 540);
+    Assertions.assertEquals("scheduled", book(session).status());
+    awaitCalendar("aircraft", "aircraft30", c -> c.reservations().size() == 1);
+
+    // Cancelled on the entity directly, so the calendar time is released by the subscriber.
+    var cancel = new TrainingSessionEntity.CancelCommand(session.studentId(), session.instructorId(), session.aircraftId(),
+        session.startTime(), Instant.now(), "weather");
+    webClient.put().uri(sessionPath(session) + "/cancel").bodyValue(cancel)
+        .retrieve().bodyToMono(String.class).block(timeout);
+
+    for (var participant : new String[][] { { "student", "student30" }, { "instructor", "instructor30" }, { "aircraft", "aircraft30" } }) {
+      var calendar = awaitCalendar(participant[0], participant[1], c -> c.reservations().isEmpty());
+      Assertions.assertTrue(calendar.reservations().isEmpty());
+    }
+  }
+
+  private void createParticipants(String studentId, String instructorId, String aircraftId) {
+    webClient.put().uri("/student/" + studentId + "/create").bodyValue(new StudentEntity.CreateStudentCommand(studentId, studentId, "course1"))
+        .retrieve().bodyToMono(String.class).block(timeout);
+    webClient.put().uri("/instructor/" + instructorId + "/create").bodyValue(new InstructorEntity.CreateInstructorCommand(instructorId, instructorId, "course1"))
+        .retrieve().bodyToMono(String.class).block(timeout);
+    webClient.put().uri("/aircraft/" + aircraftId + "/create").bodyValue(new AircraftEntity.CreateAircraftCommand(aircraftId, aircraftId, "course1"))
+        .retrieve().bodyToMono(String.class).block(timeout);
+  }
+
+  private TrainingSessionEntity.ScheduleCommand command(String studentId, String instructorId, String aircraftId, int startMinute) {
+    var startTime = day.atStartOfDay(ZoneOffset.UTC).toInstant().plus(Duration.ofMinutes(startMinute));
+    return new TrainingSessionEntity.ScheduleCommand(studentId, instructorId, aircraftId, startTime, Duration.ofMinutes(90));
+  }
+
+  private TrainingSessionBookingAction.BookingResult book(TrainingSessionEntity.ScheduleCommand command) {
+    return webClient.put().uri("/trainingSessionBooking/schedule").bodyValue(command)
+        .retrieve().bodyToMono(TrainingSessionBookingAction.BookingResult.class).block(timeout);
+  }
+
+  private TrainingSessionEntity.State session(TrainingSessionEntity.ScheduleCommand command) {
+    return webClient.get().uri(sessionPath(command))
+        .retrieve().bodyToMono(TrainingSessionEntity.State.class).block(timeout);
+  }
+
+  private static String sessionPath(TrainingSessionEntity.ScheduleCommand command) {
+    return "/trainingSession/%s/%s/%s/%s".formatted(command.studentId(), command.instructorId(), command.aircraftId(), command.startTime());
+  }
+
+  // The subscriber updates the calendars asynchronously, so they are read until they match or the timeout passes.
+  private DayCalendarEntity.State awaitCalendar(String resourceType, String resourceId, Predicate<DayCalendarEntity.State> condition)
+      throws InterruptedException {
+    var path = "/dayCalendar/%s/%s/%d/%d/%d".formatted(resourceType, resourceId, day.getYear(), day.getMonthValue(), day.getDayOfMonth());
+    var deadline = System.nanoTime() + timeout.toNanos();
+    while (true) {
+      var calendar = webClient.get().uri(path).retrieve().bodyToMono(DayCalendarEntity.State.class).block(timeout);
+      if (condition.test(calendar) || System.nanoTime() > deadline) {
+        return calendar;
+      }
+      Thread.sleep(200);
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package io.example.wingplan;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import kalix.javasdk.JsonSupport;
+
+import org.openjdk.jmh.annotations.*;
+
+// JSON round trips of each event record with the object mapper the SDK uses for the journal and the wire. The
+// version 1 events are kept for comparison with the version 2 events that replaced them, which store their times as
+// numbers instead of ISO-8601 text.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSerializationBenchmark {
+  @Param({
+      "ScheduleTimeEntity.ScheduledEvent",
+      "ScheduleTimeEntity.ScheduledEventV2",
+      "ScheduleTimeEntity.ReleasedEventV2",
+      "TrainingSessionEntity.ScheduledEvent",
+      "TrainingSessionEntity.ScheduledEventV2",
+      "TrainingSessionEntity.CompletedEvent",
+      "TrainingSessionEntity.CompletedEventV2",
+      "TrainingSessionEntity.CancelledEvent",
+      "TrainingSessionEntity.CancelledEventV2",
+      "DayCalendarEntity.ReservedEvent",
+      "DayCalendarEntity.ReleasedEvent",
+      "StudentEntity.CreatedStudentEvent" })
+  public String eventType;
+
+  private ObjectWriter writer;
+  private ObjectReader reader;
+  private Object event;
+  private byte[] json;
+
+  @Setup
+  public void setup() throws IOException {
+    var startTime = Instant.parse("2023-01-01T09:00:00Z");
+    event = switch (eventType) {
+      case "ScheduleTimeEntity.ScheduledEvent" -> new ScheduleTimeEntity.ScheduledEvent(2023, 1, 1, 540, "student", "student1");
+      case "ScheduleTimeEntity.ScheduledEventV2" -> new ScheduleTimeEntity.ScheduledEvent(2023, 1, 1, 540, "student", "student1").upcast();
+      case "ScheduleTimeEntity.ReleasedEventV2" -> new ScheduleTimeEntity.ReleasedEvent(2023, 1, 1, 540, "student", "student1").upcast();
+      case "TrainingSessionEntity.ScheduledEvent" -> new TrainingSessionEntity.ScheduledEvent("student1", "instructor1", "aircraft1", startTime, Duration.ofMinutes(90));
+      case "TrainingSessionEntity.ScheduledEventV2" -> TrainingSessionEntity.ScheduledEventV2.of("student1", "instructor1", "aircraft1", startTime, Duration.ofMinutes(90));
+      case "TrainingSessionEntity.CompletedEvent" -> new TrainingSessionEntity.CompletedEvent("student1", "instructor1", "aircraft1", startTime, startTime.plusSeconds(5400));
+      case "TrainingSessionEntity.CompletedEventV2" -> TrainingSessionEntity.CompletedEventV2.of("student1", "instructor1", "aircraft1", startTime, startTime.plusSeconds(5400));
+      case "TrainingSessionEntity.CancelledEvent" -> new TrainingSessionEntity.CancelledEvent("student1", "instructor1", "aircraft1", startTime, startTime, "weather");
+      case "TrainingSessionEntity.CancelledEventV2" -> TrainingSessionEntity.CancelledEventV2.of("student1", "instructor1", "aircraft1", startTime, startTime, "weather");
+      case "DayCalendarEntity.ReservedEvent" -> new DayCalendarEntity.ReservedEvent("aircraft", "aircraft1", 2023, 1, 1, "session1", 540, 90);
+      case "DayCalendarEntity.ReleasedEvent" -> new DayCalendarEntity.ReleasedEvent("aircraft", "aircraft1", 2023, 1, 1, "session1", 540, 90);
+      case "StudentEntity.CreatedStudentEvent" -> new StudentEntity.CreatedStudentEvent("student1", "Jane Doe", "course1");
+      default -> throw new IllegalArgumentException(eventType);
+    };
+    var objectMapper = JsonSupport.getObjectMapper();
+    writer = objectMapper.writerFor(event.getClass());
+    reader = objectMapper.readerFor(event.getClass());
+    json = writer.writeValueAsBytes(event);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    return writer.writeValueAsBytes(event);
+  }
+
+  @Benchmark
+  public Object deserialize() throws IOException {
+    return reader.readValue(json);
+  }
+}
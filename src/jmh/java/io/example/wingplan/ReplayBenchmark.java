@@ -0,0 +1,141 @@
+package io.example.wingplan;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import kalix.javasdk.JsonSupport;
+
+import org.openjdk.jmh.annotations.*;
+
+// Recovers the given number of entities the way the SDK does: each journaled event is decoded from its JSON payload
+// with the object mapper the SDK uses and folded into entity state through the event handlers. The journals have the
+// length and mix of events the entities write: a schedule time minute is held and confirmed and sometimes released, a
+// training session is scheduled and then completed or cancelled, and an aircraft's day calendar has a dozen reservations
+// of which a few are released.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+  @Param({ "1", "1000" })
+  public int entities;
+
+  private record Payload(Class<?> type, byte[] json) {}
+
+  private final ObjectMapper objectMapper = JsonSupport.getObjectMapper();
+  private List<List<Payload>> scheduleTimeJournals;
+  private List<List<Payload>> dayCalendarJournals;
+  private List<List<Payload>> trainingSessionJournals;
+
+  @Setup
+  public void setup() throws IOException {
+    scheduleTimeJournals = new ArrayList<>(entities);
+    dayCalendarJournals = new ArrayList<>(entities);
+    trainingSessionJournals = new ArrayList<>(entities);
+    var day = Instant.parse("2023-01-01T00:00:00Z");
+    for (int i = 0; i < entities; i++) {
+      var studentId = "student" + i;
+      var epochMinute = day.getEpochSecond() / 60 + i;
+      var scheduleTime = new ArrayList<Object>(3);
+      scheduleTime.add(new ScheduleTimeEntity.HeldEvent(epochMinute, "student", studentId, day.getEpochSecond() + 300));
+      scheduleTime.add(new ScheduleTimeEntity.HoldConfirmedEvent(epochMinute, "student", studentId));
+      if (i % 4 == 0) {
+        scheduleTime.add(new ScheduleTimeEntity.ReleasedEventV2(epochMinute, "student", studentId));
+      }
+      scheduleTimeJournals.add(encode(scheduleTime));
+
+      var dayCalendar = new ArrayList<Object>(15);
+      for (int reservation = 0; reservation < 12; reservation++) {
+        var reservationId = "session" + i + "-" + reservation;
+        var startMinute = 7 * 60 + reservation * 60;
+        dayCalendar.add(new DayCalendarEntity.ReservedEvent("aircraft", "aircraft" + i, 2023, 1, 1, reservationId, startMinute, 60));
+        if (reservation % 4 == 1) {
+          dayCalendar.add(new DayCalendarEntity.ReleasedEvent("aircraft", "aircraft" + i, 2023, 1, 1, reservationId, startMinute, 60));
+        }
+      }
+      dayCalendarJournals.add(encode(dayCalendar));
+
+      var startTime = day.plusSeconds(9 * 3600 + i * 60L);
+      var trainingSession = new ArrayList<Object>(3);
+      trainingSession.add(TrainingSessionEntity.ScheduledEventV2.of(studentId, "instructor1", "aircraft1", startTime, Duration.ofMinutes(90)));
+      if (i % 3 != 1) {
+        trainingSession.add(TrainingSessionEntity.CompletedEventV2.of(studentId, "instructor1", "aircraft1", startTime, startTime.plusSeconds(5400)));
+      }
+      if (i % 3 != 0) {
+        trainingSession.add(TrainingSessionEntity.CancelledEventV2.of(studentId, "instructor1", "aircraft1", startTime, startTime.plusSeconds(7200), "weather"));
+      }
+      trainingSessionJournals.add(encode(trainingSession));
+    }
+  }
+
+  private List<Payload> encode(List<Object> events) throws IOException {
+    var journal = new ArrayList<Payload>(events.size());
+    for (var event : events) {
+      journal.add(new Payload(event.getClass(), objectMapper.writeValueAsBytes(event)));
+    }
+    return journal;
+  }
+
+  @Benchmark
+  public ScheduleTimeEntity.State replayScheduleTime() throws IOException {
+    ScheduleTimeEntity.State state = null;
+    for (var journal : scheduleTimeJournals) {
+      state = ScheduleTimeEntity.State.emptyState();
+      for (var payload : journal) {
+        var event = objectMapper.readValue(payload.json(), payload.type());
+        if (event instanceof ScheduleTimeEntity.HeldEvent held) {
+          state = state.on(held);
+        } else if (event instanceof ScheduleTimeEntity.HoldConfirmedEvent confirmed) {
+          state = state.on(confirmed);
+        } else if (event instanceof ScheduleTimeEntity.ReleasedEventV2 released) {
+          state = state.on(released);
+        }
+      }
+    }
+    return state;
+  }
+
+  @Benchmark
+  public DayCalendarEntity.State replayDayCalendar() throws IOException {
+    DayCalendarEntity.State state = null;
+    for (var journal : dayCalendarJournals) {
+      state = DayCalendarEntity.State.emptyState();
+      for (var payload : journal) {
+        var event = objectMapper.readValue(payload.json(), payload.type());
+        if (event instanceof DayCalendarEntity.ReservedEvent reserved) {
+          state = state.on(reserved);
+        } else if (event instanceof DayCalendarEntity.ReleasedEvent released) {
+          state = state.on(released);
+        }
+      }
+    }
+    return state;
+  }
+
+  @Benchmark
+  public TrainingSessionEntity.State replayTrainingSession() throws IOException {
+    TrainingSessionEntity.State state = null;
+    for (var journal : trainingSessionJournals) {
+      state = TrainingSessionEntity.State.emptyState();
+      for (var payload : journal) {
+        var event = objectMapper.readValue(payload.json(), payload.type());
+        if (event instanceof TrainingSessionEntity.ScheduledEventV2 scheduled) {
+          state = state.on(scheduled);
+        } else if (event instanceof TrainingSessionEntity.CompletedEventV2 completed) {
+          state = state.on(completed);
+        } else if (event instanceof TrainingSessionEntity.CancelledEventV2 cancelled) {
+          state = state.on(cancelled);
+        }
+      }
+    }
+    return state;
+  }
+}
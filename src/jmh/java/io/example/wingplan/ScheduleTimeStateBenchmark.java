@@ -0,0 +1,45 @@
+package io.example.wingplan;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleTimeStateBenchmark {
+  private final ScheduleTimeEntity.ScheduleCommand scheduleCommand = new ScheduleTimeEntity.ScheduleCommand(2023, 1, 1, 540, "student", "student1");
+  private final ScheduleTimeEntity.ReleaseCommand releaseCommand = new ScheduleTimeEntity.ReleaseCommand(2023, 1, 1, 540, "student", "student1");
+  private final ScheduleTimeEntity.ScheduledEventV2 scheduledEvent = new ScheduleTimeEntity.ScheduledEvent(2023, 1, 1, 540, "student", "student1").upcast();
+  private final ScheduleTimeEntity.ReleasedEventV2 releasedEvent = new ScheduleTimeEntity.ReleasedEvent(2023, 1, 1, 540, "student", "student1").upcast();
+  private final ScheduleTimeEntity.State empty = ScheduleTimeEntity.State.emptyState();
+  private final ScheduleTimeEntity.State scheduled = empty.on(scheduledEvent);
+
+  @Benchmark
+  public ScheduleTimeEntity.Event scheduleCommand() {
+    return empty.isAvailable() ? empty.eventFor(scheduleCommand) : null;
+  }
+
+  @Benchmark
+  public boolean scheduleCommandRejected() {
+    return scheduled.isAvailable() || scheduled.isSameTypeAndId(scheduleCommand.type(), "student2");
+  }
+
+  @Benchmark
+  public ScheduleTimeEntity.Event releaseCommand() {
+    return scheduled.isSameTypeAndId(releaseCommand.type(), releaseCommand.id()) ? scheduled.eventFor(releaseCommand) : null;
+  }
+
+  @Benchmark
+  public ScheduleTimeEntity.State applyScheduled() {
+    return empty.on(scheduledEvent);
+  }
+
+  @Benchmark
+  public ScheduleTimeEntity.State applyReleased() {
+    return scheduled.on(releasedEvent);
+  }
+}
@@ -0,0 +1,54 @@
+package io.example.wingplan;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrainingSessionStateBenchmark {
+  private final Instant startTime = Instant.parse("2023-01-01T09:00:00Z");
+  private final TrainingSessionEntity.ScheduleCommand scheduleCommand =
+      new TrainingSessionEntity.ScheduleCommand("student1", "instructor1", "aircraft1", startTime, Duration.ofMinutes(90));
+  private final TrainingSessionEntity.CompleteCommand completeCommand =
+      new TrainingSessionEntity.CompleteCommand("student1", "instructor1", "aircraft1", startTime, startTime.plus(Duration.ofMinutes(90)));
+  private final TrainingSessionEntity.ScheduledEventV2 scheduledEvent =
+      TrainingSessionEntity.ScheduledEventV2.of("student1", "instructor1", "aircraft1", startTime, Duration.ofMinutes(90));
+  private final TrainingSessionEntity.CompletedEventV2 completedEvent =
+      TrainingSessionEntity.CompletedEventV2.of("student1", "instructor1", "aircraft1", startTime, startTime.plus(Duration.ofMinutes(90)));
+  private final TrainingSessionEntity.CancelledEventV2 cancelledEvent =
+      TrainingSessionEntity.CancelledEventV2.of("student1", "instructor1", "aircraft1", startTime, startTime, "weather");
+  private final TrainingSessionEntity.State empty = TrainingSessionEntity.State.emptyState();
+  private final TrainingSessionEntity.State scheduled = empty.on(scheduledEvent);
+
+  @Benchmark
+  public TrainingSessionEntity.Event scheduleCommand() {
+    return empty.rejectionReason().isEmpty() ? empty.eventFor(scheduleCommand) : null;
+  }
+
+  @Benchmark
+  public TrainingSessionEntity.Event completeCommand() {
+    return scheduled.rejectionReason().isEmpty() ? scheduled.eventFor(completeCommand) : null;
+  }
+
+  @Benchmark
+  public TrainingSessionEntity.State applyScheduled() {
+    return empty.on(scheduledEvent);
+  }
+
+  @Benchmark
+  public TrainingSessionEntity.State applyCompleted() {
+    return scheduled.on(completedEvent);
+  }
+
+  @Benchmark
+  public TrainingSessionEntity.State applyCancelled() {
+    return scheduled.on(cancelledEvent);
+  }
+}
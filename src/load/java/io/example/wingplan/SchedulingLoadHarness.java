@@ -0,0 +1,200 @@
+package io.example.wingplan;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fires concurrent booking scenarios at a running service (by default the local proxy started with docker-compose)
+// and reports latency percentiles, throughput and the share of succeeded, rejected and failed requests.
+//
+//   mvn test-compile exec:exec@load-test -Pload -Dload.args="--scenario morning-rush --clients 200 --requests 20"
+//
+// Scenarios:
+//   hot-minute    every client races for the same scheduleTime minute with its own student id
+//   morning-rush  clients book training sessions between 07:00 and 10:00 through the booking action, drawing
+//                 students, instructors and aircraft from fixed pools
+public class SchedulingLoadHarness {
+  private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+  private final String baseUrl;
+  private final String scenario;
+  private final int clients;
+  private final int requestsPerClient;
+  private final LocalDate day;
+  private final long[] latencies;
+  private final AtomicInteger next = new AtomicInteger();
+  private final AtomicLong succeeded = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+
+  SchedulingLoadHarness(Map<String, String> options) {
+    this.baseUrl = options.getOrDefault("base-url", "http://localhost:9000");
+    this.scenario = options.getOrDefault("scenario", "hot-minute");
+    this.clients = Integer.parseInt(options.getOrDefault("clients", "100"));
+    this.requestsPerClient = Integer.parseInt(options.getOrDefault("requests", "10"));
+    this.day = LocalDate.parse(options.getOrDefault("day", LocalDate.now(ZoneOffset.UTC).plusDays(1).toString()));
+    this.latencies = new long[clients * requestsPerClient];
+  }
+
+  public static void main(String[] args) throws Exception {
+    var options = new HashMap<String, String>();
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+    }
+    new SchedulingLoadHarness(options).run();
+  }
+
+  void run() throws InterruptedException {
+    System.out.printf("scenario=%s clients=%d requests/client=%d base-url=%s%n", scenario, clients, requestsPerClient, baseUrl);
+    if (scenario.equals("morning-rush")) {
+      createResources();
+    }
+    var started = System.nanoTime();
+    var executor = newExecutor();
+    for (int client = 0; client < clients; client++) {
+      var clientId = client;
+      executor.execute(() -> {
+        for (int request = 0; request < requestsPerClient; request++) {
+          send(clientId, request);
+        }
+      });
+    }
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.HOURS);
+    report(System.nanoTime() - started);
+  }
+
+  private void send(int client, int request) {
+    var httpRequest = switch (scenario) {
+      case "hot-minute" -> hotMinute(client, request);
+      case "morning-rush" -> morningRush();
+      default -> throw new IllegalArgumentException("Unknown scenario: " + scenario);
+    };
+    var start = System.nanoTime();
+    try {
+      var response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+      latencies[next.getAndIncrement()] = System.nanoTime() - start;
+      if (response.statusCode() == 400 || response.body().contains("\"status\":\"rejected\"")) {
+        rejected.incrementAndGet();
+      } else if (response.statusCode() == 200) {
+        succeeded.incrementAndGet();
+      } else {
+        failed.incrementAndGet();
+      }
+    } catch (Exception e) {
+      latencies[next.getAndIncrement()] = System.nanoTime() - start;
+      failed.incrementAndGet();
+    }
+  }
+
+  private HttpRequest hotMinute(int client, int request) {
+    var path = "/scheduleTime/%d/%d/%d/%d/schedule".formatted(day.getYear(), day.getMonthValue(), day.getDayOfMonth(), 540);
+    var body = """
+        {"year":%d,"month":%d,"day":%d,"minuteOfDay":540,"type":"student","id":"student-%d-%d"}"""
+        .formatted(day.getYear(), day.getMonthValue(), day.getDayOfMonth(), client, request);
+    return put(path, body);
+  }
+
+  private HttpRequest morningRush() {
+    var random = ThreadLocalRandom.current();
+    var studentId = "student-" + random.nextInt(students());
+    var instructorId = "instructor-" + random.nextInt(instructors());
+    var aircraftId = "aircraft-" + random.nextInt(aircraft());
+    var startTime = day.atStartOfDay().toInstant(ZoneOffset.UTC).plus(Duration.ofMinutes(7 * 60 + 30 * random.nextInt(6)));
+    var body = """
+        {"studentId":"%s","instructorId":"%s","aircraftId":"%s","startTime":"%s","duration":"PT1H30M"}"""
+        .formatted(studentId, instructorId, aircraftId, startTime);
+    return put("/trainingSessionBooking/schedule", body);
+  }
+
+  // Bookings are rejected for unknown participants, so the pools are created before the clients start. Creating an
+  // existing entity is a no-op.
+  private void createResources() {
+    var requests = new ArrayList<CompletableFuture<HttpResponse<String>>>();
+    for (int i = 0; i < students(); i++) {
+      requests.add(create("/student/student-%d/create".formatted(i), """
+          {"studentId":"student-%d","name":"Student %d","courseId":"load-test"}""".formatted(i, i)));
+    }
+    for (int i = 0; i < instructors(); i++) {
+      requests.add(create("/instructor/instructor-%d/create".formatted(i), """
+          {"instructorId":"instructor-%d","name":"Instructor %d","courseId":"load-test"}""".formatted(i, i)));
+    }
+    for (int i = 0; i < aircraft(); i++) {
+      requests.add(create("/aircraft/aircraft-%d/create".formatted(i), """
+          {"aircraftId":"aircraft-%d","name":"Aircraft %d","courseId":"load-test"}""".formatted(i, i)));
+    }
+    CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+    System.out.printf("created students=%d instructors=%d aircraft=%d%n", students(), instructors(), aircraft());
+  }
+
+  private CompletableFuture<HttpResponse<String>> create(String path, String body) {
+    return httpClient.sendAsync(put(path, body), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private int students() {
+    return clients * 2;
+  }
+
+  private int instructors() {
+    return Math.max(1, clients / 10);
+  }
+
+  private int aircraft() {
+    return Math.max(1, clients / 8);
+  }
+
+  private HttpRequest put(String path, String body) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path))
+        .timeout(Duration.ofSeconds(30))
+        .header("Content-Type", "application/json")
+        .PUT(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+  }
+
+  private void report(long elapsedNanos) {
+    var count = next.get();
+    var sorted = Arrays.copyOf(latencies, count);
+    Arrays.sort(sorted);
+    var seconds = elapsedNanos / 1e9;
+    System.out.printf("requests=%d elapsed=%.2fs throughput=%.1f req/s%n", count, seconds, count / seconds);
+    System.out.printf("latency p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms%n",
+        percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999), count == 0 ? 0.0 : sorted[count - 1] / 1e6);
+    System.out.printf("succeeded=%.1f%% rejected=%.1f%% failed=%.1f%%%n",
+        share(succeeded.get(), count), share(rejected.get(), count), share(failed.get(), count));
+  }
+
+  private static double percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0.0;
+    }
+    var index = (int) Math.ceil(percentile * sorted.length) - 1;
+    return sorted[Math.max(0, index)] / 1e6;
+  }
+
+  private static double share(long value, int count) {
+    return count == 0 ? 0.0 : 100.0 * value / count;
+  }
+
+  // Virtual threads when running on JDK 21 or later, otherwise one platform thread per client.
+  private ExecutorService newExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newFixedThreadPool(clients);
+    }
+  }
+}
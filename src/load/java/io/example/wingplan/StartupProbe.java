@@ -0,0 +1,136 @@
+package io.example.wingplan;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Starts the service image, repeatedly, and reports the time until it answers its first request through the local
+// proxy started with docker-compose, the latency of that first request and of the cold first entity request after it,
+// and the warm latency of the same request. Used to compare the default image with the one of the fast-startup
+// profile.
+//
+//   mvn install -Pfast-startup
+//   mvn test-compile exec:exec@startup-probe -Pload -Dstartup.args="--image my-docker-repo/wing-plan-java-demo:v1 --runs 5"
+//
+// The service is started with `docker run` on port 8080 unless --command gives another shell command, in which case
+// --stop gives the command that stops it again. Only one instance may run at a time.
+public class StartupProbe {
+  private static final String CONTAINER_NAME = "wing-plan-startup-probe";
+  private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+  private final String baseUrl;
+  private final String startCommand;
+  private final String stopCommand;
+  private final int runs;
+  private final int requests;
+  private final Duration timeout;
+
+  StartupProbe(Map<String, String> options) {
+    this.baseUrl = options.getOrDefault("base-url", "http://localhost:9000");
+    var image = options.getOrDefault("image", "my-docker-repo/wing-plan-java-demo:v1");
+    this.startCommand = options.getOrDefault("command",
+        "docker run --rm --name " + CONTAINER_NAME + " -p 8080:8080 -e HOST=0.0.0.0 " + image);
+    this.stopCommand = options.getOrDefault("stop", options.containsKey("command") ? "" : "docker rm -f " + CONTAINER_NAME);
+    this.runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+    this.requests = Integer.parseInt(options.getOrDefault("requests", "50"));
+    this.timeout = Duration.parse("PT" + options.getOrDefault("timeout", "120s").toUpperCase());
+  }
+
+  public static void main(String[] args) throws Exception {
+    var options = new HashMap<String, String>();
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+    }
+    new StartupProbe(options).run();
+  }
+
+  void run() throws Exception {
+    System.out.printf("command=%s runs=%d requests=%d base-url=%s%n", startCommand, runs, requests, baseUrl);
+    var startup = new long[runs];
+    var firstRequest = new long[runs];
+    var firstEntityRequest = new long[runs];
+    for (int run = 0; run < runs; run++) {
+      var process = new ProcessBuilder("sh", "-c", startCommand)
+          .redirectErrorStream(true)
+          .redirectOutput(new File("target/startup-probe-" + run + ".log"))
+          .start();
+      var started = System.nanoTime();
+      try {
+        firstRequest[run] = awaitFirstResponse(started);
+        startup[run] = System.nanoTime() - started;
+        firstEntityRequest[run] = timed(entityRequest(run));
+        var warm = new long[requests];
+        for (int request = 0; request < requests; request++) {
+          warm[request] = timed(entityRequest(run));
+        }
+        Arrays.sort(warm);
+        System.out.printf("run=%d startup=%.0fms first-request=%.2fms first-entity-request=%.2fms warm p50=%.2fms p99=%.2fms%n",
+            run, startup[run] / 1e6, firstRequest[run] / 1e6, firstEntityRequest[run] / 1e6, percentile(warm, 0.50), percentile(warm, 0.99));
+      } finally {
+        stop(process);
+      }
+    }
+    Arrays.sort(startup);
+    Arrays.sort(firstRequest);
+    Arrays.sort(firstEntityRequest);
+    System.out.printf("median startup=%.0fms first-request=%.2fms first-entity-request=%.2fms%n",
+        percentile(startup, 0.50), percentile(firstRequest, 0.50), percentile(firstEntityRequest, 0.50));
+  }
+
+  // Polls the metrics endpoint until it answers, returns the latency of the successful request. The proxy reports
+  // the user function as unavailable until it has discovered it again, so this includes the proxy's reconnect.
+  private long awaitFirstResponse(long started) throws Exception {
+    var request = HttpRequest.newBuilder(URI.create(baseUrl + "/metrics"))
+        .timeout(Duration.ofSeconds(5))
+        .GET()
+        .build();
+    while (System.nanoTime() - started < timeout.toNanos()) {
+      var sent = System.nanoTime();
+      try {
+        if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+          return System.nanoTime() - sent;
+        }
+      } catch (IOException e) {
+        // not listening yet
+      }
+      Thread.sleep(20);
+    }
+    throw new IllegalStateException("No response from " + baseUrl + " within " + timeout);
+  }
+
+  private HttpRequest entityRequest(int run) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + "/student/startup-probe-" + run))
+        .timeout(Duration.ofSeconds(10))
+        .GET()
+        .build();
+  }
+
+  private long timed(HttpRequest request) throws Exception {
+    var sent = System.nanoTime();
+    httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+    return System.nanoTime() - sent;
+  }
+
+  private void stop(Process process) throws Exception {
+    if (!stopCommand.isEmpty()) {
+      new ProcessBuilder("sh", "-c", stopCommand).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start().waitFor();
+    }
+    process.descendants().forEach(ProcessHandle::destroy);
+    process.destroy();
+    process.waitFor();
+  }
+
+  private static double percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0.0;
+    }
+    var index = (int) Math.ceil(percentile * sorted.length) - 1;
+    return sorted[Math.max(0, index)] / 1e6;
+  }
+}
@@ -0,0 +1,32 @@
+package io.example.wingplan;
+
+import kalix.javasdk.annotations.Query;
+import kalix.javasdk.annotations.Subscribe;
+import kalix.javasdk.annotations.Table;
+import kalix.javasdk.annotations.ViewId;
+import kalix.javasdk.view.View;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+@ViewId("aircraft_by_course")
+@Table("aircraft_by_course")
+@Subscribe.EventSourcedEntity(value = AircraftEntity.class)
+public class AircraftByCourseView extends View<AircraftByCourseView.Row> {
+
+  @GetMapping("/aircraftByCourse/{courseId}")
+  @Query("SELECT * AS rows FROM aircraft_by_course WHERE courseId = :courseId")
+  public Rows getAircraftByCourse(@PathVariable String courseId) {
+    return null;
+  }
+
+  public UpdateEffect<Row> on(AircraftEntity.CreatedAircraftEvent event) {
+    return effects().updateState(new Row(event.aircraftId(), event.name(), event.courseId()));
+  }
+
+  public record Row(String aircraftId, String name, String courseId) {}
+
+  public record Rows(List<Row> rows) {}
+}
@@ -5,19 +5,18 @@ import kalix.javasdk.annotations.EntityType;
 import kalix.javasdk.annotations.EventHandler;
 import kalix.javasdk.eventsourcedentity.EventSourcedEntity;
 import kalix.javasdk.eventsourcedentity.EventSourcedEntityContext;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.*;
 
 @EntityKey("aircraftId")
 @EntityType("aircraft")
 @RequestMapping("/aircraft/{aircraftId}")
 public class AircraftEntity extends EventSourcedEntity<AircraftEntity.State, AircraftEntity.Event> {
-  private final Logger log = LoggerFactory.getLogger(AircraftEntity.class);
   private final String entityId;
+  private final EntityLogger log;
 
   public AircraftEntity(EventSourcedEntityContext context) {
     this.entityId = context.entityId();
+    this.log = EntityLogger.of(AircraftEntity.class, "aircraft", entityId);
   }
 
   @Override
@@ -27,7 +26,7 @@ public class AircraftEntity extends EventSourcedEntity<AircraftEntity.State, Air
 
   @PutMapping("/create")
   public Effect<String> createAircraft(@RequestBody CreateAircraftCommand command) {
-    log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
+    log.command("createAircraft", command, this::currentState);
     if (!currentState().isEmpty()) {
       return effects().reply("OK");
     }
@@ -38,13 +37,12 @@ public class AircraftEntity extends EventSourcedEntity<AircraftEntity.State, Air
 
   @GetMapping
   public Effect<State> getAircraft() {
-    log.info("EntityId: {}\n_State: {}", entityId, currentState());
+    log.query("getAircraft", this::currentState);
     return effects().reply(currentState());
   }
 
   @EventHandler
   public State on(CreatedAircraftEvent event) {
-    log.info("EntityId: {}\n_State: {}\n_Event: {}", entityId, currentState(), event);
     return currentState().on(event);
   }
 
@@ -0,0 +1,13 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.javasdk.annotations.Subscribe;
+
+@Subscribe.EventSourcedEntity(value = AircraftEntity.class)
+public class AircraftToReferenceCacheAction extends Action {
+
+  public Effect<String> on(AircraftEntity.CreatedAircraftEvent event) {
+    ReferenceDataCache.invalidate("aircraft", event.aircraftId());
+    return effects().reply("OK");
+  }
+}
@@ -0,0 +1,238 @@
+package io.example.wingplan;
+
+import kalix.javasdk.annotations.EntityKey;
+import kalix.javasdk.annotations.EntityType;
+import kalix.javasdk.annotations.EventHandler;
+import kalix.javasdk.eventsourcedentity.EventSourcedEntity;
+import kalix.javasdk.eventsourcedentity.EventSourcedEntityContext;
+import io.grpc.Status;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import com.typesafe.config.ConfigFactory;
+
+import org.springframework.web.bind.annotation.*;
+
+// Flown minutes of one aircraft, kept up to date from the completed and cancelled training sessions by
+// TrainingSessionToAircraftUtilizationAction. Every flight counts towards the totals, however old it is. The day
+// and week buckets only cover the retention period before the latest flight, and only the most recently recorded
+// and removed flights are remembered, to ignore redelivered commands. So an update never depends on the length of
+// the history.
+@EntityKey("aircraftId")
+@EntityType("aircraftUtilization")
+@RequestMapping("/aircraftUtilization/{aircraftId}")
+public class AircraftUtilizationEntity extends EventSourcedEntity<AircraftUtilizationEntity.State, AircraftUtilizationEntity.Event> {
+  static final int RETENTION_DAYS = ConfigFactory.load().getInt("wing-plan.aircraft-utilization.retention-days");
+  static final int RECENT_FLIGHTS = ConfigFactory.load().getInt("wing-plan.aircraft-utilization.recent-flights");
+  private final String entityId;
+  private final EntityLogger log;
+
+  public AircraftUtilizationEntity(EventSourcedEntityContext context) {
+    this.entityId = context.entityId();
+    this.log = EntityLogger.of(AircraftUtilizationEntity.class, "aircraftUtilization", entityId);
+  }
+
+  @Override
+  public State emptyState() {
+    return State.emptyState();
+  }
+
+  @PutMapping("/recordFlight")
+  public Effect<String> recordFlight(@RequestBody RecordFlightCommand command) {
+    log.command("recordFlight", command, this::currentState);
+    if (command.sessionId() == null || command.startTime() == null || command.endTime() == null) {
+      return effects().error("Session id, start time and end time are required", Status.Code.INVALID_ARGUMENT);
+    }
+    if (currentState().flights().containsKey(command.sessionId())) {
+      return effects().reply("OK");
+    }
+    return effects()
+        .emitEvent(currentState().eventFor(command))
+        .thenReply(__ -> "OK");
+  }
+
+  // A flight that is no longer remembered is removed from the start and end time in the command, a command
+  // without them only removes remembered flights.
+  @PutMapping("/removeFlight")
+  public Effect<String> removeFlight(@RequestBody RemoveFlightCommand command) {
+    log.command("removeFlight", command, this::currentState);
+    var event = currentState().eventFor(command);
+    if (event.isEmpty()) {
+      return effects().reply("OK");
+    }
+    return effects()
+        .emitEvent(event.get())
+        .thenReply(__ -> "OK");
+  }
+
+  @PutMapping("/inspect")
+  public Effect<String> inspect(@RequestBody InspectCommand command) {
+    log.command("inspect", command, this::currentState);
+    if (command.inspectionTime() == null) {
+      return effects().error("Inspection time is required", Status.Code.INVALID_ARGUMENT);
+    }
+    if (currentState().lastInspectionTime() != null && !command.inspectionTime().isAfter(currentState().lastInspectionTime())) {
+      return effects().reply("OK");
+    }
+    if (!currentState().isRemembered(TimeSlot.epochMinute(command.inspectionTime()))) {
+      return effects().error("Inspection time is before the remembered flights", Status.Code.INVALID_ARGUMENT);
+    }
+    return effects()
+        .emitEvent(currentState().eventFor(command))
+        .thenReply(__ -> "OK");
+  }
+
+  @GetMapping
+  public Effect<State> getAircraftUtilization() {
+    log.query("getAircraftUtilization", this::currentState);
+    return effects().reply(currentState());
+  }
+
+  @EventHandler
+  public State on(FlightRecordedEvent event) {
+    return currentState().on(event);
+  }
+
+  @EventHandler
+  public State on(FlightRemovedEvent event) {
+    return currentState().on(event);
+  }
+
+  @EventHandler
+  public State on(InspectedEvent event) {
+    return currentState().on(event);
+  }
+
+  // Days are UTC epoch days, weeks start on Monday and are identified by the epoch day of that Monday. The buckets
+  // map the day to its minutes. flights are the most recently recorded and removed flights by session id, in the
+  // order they were first seen, and evictedStartEpochMinute is the latest start of the flights that were dropped
+  // from them. The event handlers update the maps in place, the entity only ever reads its current state.
+  public record State(
+      String aircraftId,
+      long totalMinutes,
+      long minutesSinceInspection,
+      Instant lastInspectionTime,
+      TreeMap<Long, Integer> days,
+      TreeMap<Long, Integer> weeks,
+      LinkedHashMap<String, Flight> flights,
+      long evictedStartEpochMinute) {
+    static State emptyState() {
+      return new State(null, 0, 0, null, new TreeMap<>(), new TreeMap<>(), new LinkedHashMap<>(), Long.MIN_VALUE);
+    }
+
+    boolean isEmpty() {
+      return aircraftId == null || aircraftId.isEmpty();
+    }
+
+    // The minutes since an inspection are counted from the remembered flights, so every flight that starts after
+    // it must still be remembered.
+    boolean isRemembered(long epochMinute) {
+      return epochMinute > evictedStartEpochMinute;
+    }
+
+    Event eventFor(RecordFlightCommand command) {
+      var startEpochMinute = TimeSlot.epochMinute(command.startTime());
+      return new FlightRecordedEvent(command.aircraftId(), command.sessionId(), startEpochMinute, minutes(command.startTime(), command.endTime()));
+    }
+
+    Optional<Event> eventFor(RemoveFlightCommand command) {
+      var flight = flights.get(command.sessionId());
+      if (flight != null) {
+        return flight.removed()
+            ? Optional.empty()
+            : Optional.of(new FlightRemovedEvent(command.aircraftId(), command.sessionId(), flight.startEpochMinute(), flight.minutes()));
+      }
+      if (command.startTime() == null || command.endTime() == null) {
+        return Optional.empty();
+      }
+      return Optional.of(new FlightRemovedEvent(command.aircraftId(), command.sessionId(), TimeSlot.epochMinute(command.startTime()),
+          minutes(command.startTime(), command.endTime())));
+    }
+
+    Event eventFor(InspectCommand command) {
+      return new InspectedEvent(command.aircraftId(), command.inspectionTime().getEpochSecond());
+    }
+
+    // Whole minutes started between the start and end time.
+    private static int minutes(Instant startTime, Instant endTime) {
+      var endEpochMinute = TimeSlot.epochMinute(endTime.plusSeconds(59));
+      return (int) Math.max(0, endEpochMinute - TimeSlot.epochMinute(startTime));
+    }
+
+    State on(FlightRecordedEvent event) {
+      if (flights.containsKey(event.sessionId())) {
+        return this;
+      }
+      flights.put(event.sessionId(), new Flight(event.startEpochMinute(), event.minutes(), false));
+      return update(event.aircraftId(), event.startEpochMinute(), event.minutes());
+    }
+
+    State on(FlightRemovedEvent event) {
+      var flight = flights.get(event.sessionId());
+      if (flight != null && flight.removed()) {
+        return this;
+      }
+      flights.put(event.sessionId(), new Flight(event.startEpochMinute(), event.minutes(), true));
+      return update(event.aircraftId(), event.startEpochMinute(), -event.minutes());
+    }
+
+    // The inspection can be recorded after flights that followed it, their minutes count since the inspection.
+    State on(InspectedEvent event) {
+      var inspectionTime = Instant.ofEpochSecond(event.inspectionEpochSecond());
+      var inspectionMinute = TimeSlot.epochMinute(inspectionTime);
+      var sinceInspection = flights.values().stream()
+          .filter(f -> !f.removed() && f.startEpochMinute() >= inspectionMinute)
+          .mapToLong(Flight::minutes)
+          .sum();
+      return new State(event.aircraftId(), totalMinutes, sinceInspection, inspectionTime, days, weeks, flights, evictedStartEpochMinute);
+    }
+
+    // Flights that started before the last inspection do not count towards the minutes since the inspection, and
+    // flights before the retention period have no bucket.
+    private State update(String aircraftId, long startEpochMinute, int minutes) {
+      var epochDay = Math.floorDiv(startEpochMinute, TimeSlot.MINUTES_PER_DAY);
+      var cutoffDay = Math.max(epochDay, days.isEmpty() ? epochDay : days.lastKey()) - RETENTION_DAYS;
+      if (epochDay >= cutoffDay) {
+        days.merge(epochDay, minutes, Integer::sum);
+        weeks.merge(weekOf(epochDay), minutes, Integer::sum);
+      }
+      days.headMap(cutoffDay).clear();
+      weeks.headMap(cutoffDay - 6).clear();
+
+      var evicted = evictedStartEpochMinute;
+      for (var eldest = flights.entrySet().iterator(); flights.size() > RECENT_FLIGHTS; ) {
+        evicted = Math.max(evicted, eldest.next().getValue().startEpochMinute());
+        eldest.remove();
+      }
+
+      var sinceInspection = lastInspectionTime == null || startEpochMinute >= TimeSlot.epochMinute(lastInspectionTime)
+          ? minutesSinceInspection + minutes
+          : minutesSinceInspection;
+      return new State(aircraftId, totalMinutes + minutes, sinceInspection, lastInspectionTime, days, weeks, flights, evicted);
+    }
+
+    // Epoch day 4 (1970-01-05) was a Monday.
+    static long weekOf(long epochDay) {
+      return epochDay - Math.floorMod(epochDay - 4, 7);
+    }
+  }
+
+  public record Flight(long startEpochMinute, int minutes, boolean removed) {}
+
+  public interface Event {}
+
+  public record RecordFlightCommand(String aircraftId, String sessionId, Instant startTime, Instant endTime) {}
+
+  public record RemoveFlightCommand(String aircraftId, String sessionId, Instant startTime, Instant endTime) {}
+
+  public record InspectCommand(String aircraftId, Instant inspectionTime) {}
+
+  public record FlightRecordedEvent(String aircraftId, String sessionId, long startEpochMinute, int minutes) implements Event {}
+
+  public record FlightRemovedEvent(String aircraftId, String sessionId, long startEpochMinute, int minutes) implements Event {}
+
+  public record InspectedEvent(String aircraftId, long inspectionEpochSecond) implements Event {}
+}
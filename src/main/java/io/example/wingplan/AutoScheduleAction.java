@@ -0,0 +1,158 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.spring.KalixClient;
+import io.grpc.Status;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import com.typesafe.config.ConfigFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+// Proposes a plan for the remaining lessons of a course's students. The plan is not booked, the sessions can be
+// scheduled with the batch endpoint once a planner has accepted them. Existing reservations are read from the
+// resource calendars, which include the slots scheduled through scheduleTime.
+@RequestMapping("/autoSchedule")
+public class AutoScheduleAction extends Action {
+  private static final int WORKERS = ConfigFactory.load().getInt("wing-plan.auto-schedule.parallelism");
+  private static final int STEP_MINUTES = ConfigFactory.load().getInt("wing-plan.auto-schedule.step-minutes");
+  private static final Duration DEFAULT_TIME_BUDGET = ConfigFactory.load().getDuration("wing-plan.auto-schedule.time-budget");
+  private static final Duration MAX_TIME_BUDGET = ConfigFactory.load().getDuration("wing-plan.auto-schedule.max-time-budget");
+  private static final ForkJoinPool pool = new ForkJoinPool(WORKERS);
+  private static final List<String> resourceTypes = List.of("student", "instructor", "aircraft");
+  private final Logger log = LoggerFactory.getLogger(AutoScheduleAction.class);
+  private final KalixClient kalixClient;
+
+  public AutoScheduleAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  @PostMapping("/{courseId}")
+  public Effect<ProposedPlan> plan(@PathVariable String courseId, @RequestBody PlanRequest request) {
+    var rejection = request.rejection();
+    if (rejection != null) {
+      return effects().error(rejection, Status.Code.INVALID_ARGUMENT);
+    }
+    log.info("CourseId: {}, students: {}, days: {}", courseId, request.students().size(), request.days());
+    var instructors = kalixClient.get("/instructorsByCourse/" + courseId, InstructorsByCourseView.Rows.class).execute().toCompletableFuture();
+    var aircraft = kalixClient.get("/aircraftByCourse/" + courseId, AircraftByCourseView.Rows.class).execute().toCompletableFuture();
+    var calendars = calendars(request);
+
+    return effects().asyncReply(
+        CompletableFuture.allOf(instructors, aircraft, calendars)
+            .thenComposeAsync(__ -> {
+              var problem = problem(request,
+                  instructors.join().rows().stream().map(InstructorsByCourseView.Row::instructorId).toList(),
+                  aircraft.join().rows().stream().map(AircraftByCourseView.Row::aircraftId).toList(),
+                  calendars.join());
+              return CoursePlanner.solve(problem, pool, WORKERS, request.timeBudget(), System.nanoTime())
+                  .thenApply(plan -> ProposedPlan.of(request, problem, plan));
+            }, pool));
+  }
+
+  private CompletableFuture<List<ResourceCalendarView.Row>> calendars(PlanRequest request) {
+    var firstDay = TimeSlot.of(request.year(), request.month(), request.day(), 0, 0);
+    var queries = new ArrayList<CompletableFuture<ResourceCalendarView.Rows>>();
+    for (int d = 0; d < request.days(); d++) {
+      var day = new TimeSlot(firstDay.epochMinute() + (long) d * TimeSlot.MINUTES_PER_DAY, 0);
+      for (var resourceType : resourceTypes) {
+        var path = "/resourceCalendars/%d/%d/%d/%s".formatted(day.year(), day.month(), day.day(), resourceType);
+        queries.add(kalixClient.get(path, ResourceCalendarView.Rows.class).execute().toCompletableFuture());
+      }
+    }
+    return CompletableFuture.allOf(queries.toArray(CompletableFuture[]::new))
+        .thenApply(__ -> queries.stream().flatMap(query -> query.join().rows().stream()).toList());
+  }
+
+  static CoursePlanner.Problem problem(PlanRequest request, List<String> instructorIds, List<String> aircraftIds,
+      List<ResourceCalendarView.Row> calendars) {
+    var studentIds = request.students().stream().map(StudentLessons::studentId).toList();
+    var lessons = request.students().stream().mapToInt(StudentLessons::lessons).toArray();
+    var resources = new HashMap<String, Integer>();
+    for (int i = 0; i < studentIds.size(); i++) {
+      resources.put("student/" + studentIds.get(i), i);
+    }
+    for (int i = 0; i < instructorIds.size(); i++) {
+      resources.put("instructor/" + instructorIds.get(i), studentIds.size() + i);
+    }
+    for (int i = 0; i < aircraftIds.size(); i++) {
+      resources.put("aircraft/" + aircraftIds.get(i), studentIds.size() + instructorIds.size() + i);
+    }
+
+    var days = request.days();
+    var firstEpochDay = TimeSlot.epochDay(request.year(), request.month(), request.day());
+    var busy = CoursePlanner.Problem.emptyBusy(resources.size(), days);
+    for (var row : calendars) {
+      var resource = resources.get(row.resourceType() + "/" + row.resourceId());
+      var day = (int) (TimeSlot.epochDay(row.year(), row.month(), row.day()) - firstEpochDay);
+      if (resource != null && day >= 0 && day < days) {
+        markReserved(busy[resource * days + day], row);
+      }
+    }
+    return new CoursePlanner.Problem(days, request.dayStartMinute(), request.dayEndMinute(), request.lessonMinutes(), STEP_MINUTES,
+        studentIds, lessons, instructorIds, aircraftIds, busy);
+  }
+
+  // The calendar rows list the free gaps, everything between them is reserved.
+  private static void markReserved(long[] minutes, ResourceCalendarView.Row row) {
+    var from = 0;
+    for (var gap : row.freeGaps()) {
+      if (gap.startMinute() > from) {
+        CoursePlanner.reserve(minutes, from, gap.startMinute());
+      }
+      from = gap.endMinute();
+    }
+    if (from < TimeSlot.MINUTES_PER_DAY) {
+      CoursePlanner.reserve(minutes, from, TimeSlot.MINUTES_PER_DAY);
+    }
+  }
+
+  public record StudentLessons(String studentId, Integer lessons) {}
+
+  public record PlanRequest(List<StudentLessons> students, Integer year, Integer month, Integer day, Integer days,
+      Integer dayStartMinute, Integer dayEndMinute, Integer lessonMinutes, Long timeBudgetMillis) {
+    String rejection() {
+      if (students == null || students.stream().anyMatch(s -> s.studentId() == null || s.lessons() == null || s.lessons() < 0)) {
+        return "Every student needs an id and a number of lessons";
+      }
+      if (!TimeSlot.isValid(year, month, day, 0) || days == null || days <= 0) {
+        return "A valid first day and a positive number of days are required";
+      }
+      if (dayStartMinute == null || dayEndMinute == null || lessonMinutes == null || lessonMinutes <= 0
+          || dayStartMinute < 0 || dayEndMinute > TimeSlot.MINUTES_PER_DAY || dayStartMinute + lessonMinutes > dayEndMinute) {
+        return "The lesson must fit between the day start and end minutes";
+      }
+      return null;
+    }
+
+    Duration timeBudget() {
+      var budget = timeBudgetMillis == null ? DEFAULT_TIME_BUDGET : Duration.ofMillis(timeBudgetMillis);
+      return budget.compareTo(MAX_TIME_BUDGET) > 0 ? MAX_TIME_BUDGET : budget;
+    }
+  }
+
+  public record ProposedSession(String studentId, int lesson, String instructorId, String aircraftId, Instant startTime, Duration duration) {}
+
+  public record ProposedPlan(List<ProposedSession> sessions, int unassignedLessons) {
+    static ProposedPlan of(PlanRequest request, CoursePlanner.Problem problem, CoursePlanner.Plan plan) {
+      var firstEpochDay = TimeSlot.epochDay(request.year(), request.month(), request.day());
+      var sessions = plan.assignments().stream()
+          .map(a -> {
+            var slot = new TimeSlot((firstEpochDay + a.day()) * TimeSlot.MINUTES_PER_DAY + a.startMinute(), problem.lessonMinutes());
+            return new ProposedSession(problem.studentIds().get(a.student()), a.lesson() + 1, problem.instructorIds().get(a.instructor()),
+                problem.aircraftIds().get(a.aircraft()), slot.startTime(), slot.duration());
+          })
+          .toList();
+      return new ProposedPlan(sessions, plan.unassignedLessons());
+    }
+  }
+}
@@ -0,0 +1,274 @@
+package io.example.wingplan;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+// Assigns the remaining lessons of a course's students to an instructor, an aircraft, a day and a start minute,
+// without overlapping each other or the resources' existing reservations. A student flies at most one lesson a
+// day and in lesson order.
+//
+// Each worker builds a randomized greedy plan and then improves it by ruin and recreate: a few students' later
+// lessons are removed and every student's unplaced lessons are inserted again in a random order. A change is kept
+// if it places at least as many lessons at no later times. The workers search independently, with different
+// seeds, until the time budget is spent and the best plan of all workers is returned.
+final class CoursePlanner {
+  static final int WORDS_PER_DAY = (TimeSlot.MINUTES_PER_DAY + 63) / 64;
+
+  private CoursePlanner() {}
+
+  // busy[resource * days + day] is a minute bitmap of the resource's existing reservations on that day, the
+  // resources are the students, then the instructors and then the aircraft.
+  record Problem(int days, int dayStartMinute, int dayEndMinute, int lessonMinutes, int stepMinutes,
+      List<String> studentIds, int[] lessons, List<String> instructorIds, List<String> aircraftIds, long[][] busy) {
+    static long[][] emptyBusy(int resources, int days) {
+      var busy = new long[resources * days][];
+      for (int i = 0; i < busy.length; i++) {
+        busy[i] = new long[WORDS_PER_DAY];
+      }
+      return busy;
+    }
+
+    int instructor(int index) {
+      return studentIds.size() + index;
+    }
+
+    int aircraft(int index) {
+      return studentIds.size() + instructorIds.size() + index;
+    }
+
+    int totalLessons() {
+      return IntStream.of(lessons).sum();
+    }
+  }
+
+  record Assignment(int student, int lesson, int instructor, int aircraft, int day, int startMinute) {}
+
+  record Plan(List<Assignment> assignments, int unassignedLessons) {}
+
+  // Nothing waits for the searches on a pool thread, the best plan is picked when the last search completes. A
+  // coordinator that joined the searches from inside the pool could take the threads they need to run.
+  static CompletableFuture<Plan> solve(Problem problem, ForkJoinPool pool, int workers, Duration budget, long seed) {
+    var deadline = System.nanoTime() + budget.toNanos();
+    var searches = IntStream.range(0, workers)
+        .mapToObj(worker -> CompletableFuture.supplyAsync(() -> new Search(problem, new SplittableRandom(seed + worker)).run(deadline), pool))
+        .toList();
+    return CompletableFuture.allOf(searches.toArray(CompletableFuture[]::new))
+        .thenApply(__ -> searches.stream()
+            .map(CompletableFuture::join)
+            .max(Comparator.comparingLong(Search.Result::score))
+            .orElseThrow()
+            .plan());
+  }
+
+  static void reserve(long[] minutes, int start, int end) {
+    for (int word = start >>> 6; word <= (end - 1) >>> 6; word++) {
+      minutes[word] |= mask(word, start, end);
+    }
+  }
+
+  private static void free(long[] minutes, int start, int end) {
+    for (int word = start >>> 6; word <= (end - 1) >>> 6; word++) {
+      minutes[word] &= ~mask(word, start, end);
+    }
+  }
+
+  private static boolean isFree(long[] minutes, int start, int end) {
+    for (int word = start >>> 6; word <= (end - 1) >>> 6; word++) {
+      if ((minutes[word] & mask(word, start, end)) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long mask(int word, int start, int end) {
+    var from = Math.max(start, word << 6) - (word << 6);
+    var to = Math.min(end, (word + 1) << 6) - (word << 6);
+    return to - from == 64 ? -1L : ((1L << (to - from)) - 1) << from;
+  }
+
+  private static final class Search {
+    private final Problem problem;
+    private final SplittableRandom random;
+    private final long[][] occupied;
+    private final int[] starts;
+    private final int[] assigned;
+    private final int[][] day;
+    private final int[][] start;
+    private final int[][] instructor;
+    private final int[][] aircraft;
+    private final long lessonWeight;
+    private int assignedTotal;
+    private long offsetTotal;
+
+    record Result(Plan plan, long score) {}
+
+    Search(Problem problem, SplittableRandom random) {
+      this.problem = problem;
+      this.random = random;
+      this.occupied = new long[problem.busy().length][];
+      for (int i = 0; i < occupied.length; i++) {
+        occupied[i] = problem.busy()[i].clone();
+      }
+      this.starts = IntStream.iterate(problem.dayStartMinute(), m -> m + problem.lessonMinutes() <= problem.dayEndMinute(), m -> m + problem.stepMinutes())
+          .toArray();
+      var students = problem.studentIds().size();
+      this.assigned = new int[students];
+      this.day = new int[students][];
+      this.start = new int[students][];
+      this.instructor = new int[students][];
+      this.aircraft = new int[students][];
+      for (int s = 0; s < students; s++) {
+        day[s] = new int[problem.lessons()[s]];
+        start[s] = new int[problem.lessons()[s]];
+        instructor[s] = new int[problem.lessons()[s]];
+        aircraft[s] = new int[problem.lessons()[s]];
+      }
+      this.lessonWeight = (long) problem.days() * TimeSlot.MINUTES_PER_DAY * Math.max(1, problem.totalLessons()) + 1;
+    }
+
+    Result run(long deadline) {
+      recreate();
+      var best = result();
+      var students = assigned.length;
+      while (students > 0 && System.nanoTime() < deadline) {
+        var scoreBefore = score();
+        var removed = new ArrayList<int[]>();
+        var ruined = assigned.clone();
+        for (int i = 1 + random.nextInt(3); i > 0; i--) {
+          var s = random.nextInt(students);
+          if (assigned[s] > 0) {
+            var from = random.nextInt(assigned[s]);
+            while (assigned[s] > from) {
+              removed.add(removeLast(s));
+            }
+          }
+          ruined[s] = assigned[s];
+        }
+        recreate();
+        if (score() < scoreBefore) {
+          revert(ruined, removed);
+        } else if (score() > best.score()) {
+          best = result();
+        }
+      }
+      return best;
+    }
+
+    private long score() {
+      return assignedTotal * lessonWeight - offsetTotal;
+    }
+
+    private void recreate() {
+      var students = assigned.length;
+      var order = IntStream.range(0, students).toArray();
+      for (int i = students - 1; i > 0; i--) {
+        var j = random.nextInt(i + 1);
+        var s = order[i];
+        order[i] = order[j];
+        order[j] = s;
+      }
+      for (var s : order) {
+        while (assigned[s] < problem.lessons()[s] && insertNext(s)) {}
+      }
+    }
+
+    private void revert(int[] ruined, List<int[]> removed) {
+      for (int s = 0; s < assigned.length; s++) {
+        while (assigned[s] > ruined[s]) {
+          removeLast(s);
+        }
+      }
+      for (int i = removed.size() - 1; i >= 0; i--) {
+        var r = removed.get(i);
+        add(r[0], r[1], r[2], r[3], r[4]);
+      }
+    }
+
+    private boolean insertNext(int s) {
+      var lesson = assigned[s];
+      var firstDay = lesson == 0 ? 0 : day[s][lesson - 1] + 1;
+      var instructors = problem.instructorIds().size();
+      var aircraftCount = problem.aircraftIds().size();
+      for (int d = firstDay; d < problem.days(); d++) {
+        var studentMinutes = occupied[s * problem.days() + d];
+        for (var from : starts) {
+          var to = from + problem.lessonMinutes();
+          if (!isFree(studentMinutes, from, to)) {
+            continue;
+          }
+          var i = firstFree(instructors, d, from, to, problem::instructor);
+          if (i < 0) {
+            continue;
+          }
+          var a = firstFree(aircraftCount, d, from, to, problem::aircraft);
+          if (a < 0) {
+            continue;
+          }
+          add(s, d, from, i, a);
+          return true;
+        }
+      }
+      return false;
+    }
+
+    // Starts at a random resource so that the workers spread their lessons over different instructors and aircraft.
+    private int firstFree(int count, int d, int from, int to, IntUnaryOperator resource) {
+      if (count == 0) {
+        return -1;
+      }
+      var offset = random.nextInt(count);
+      for (int k = 0; k < count; k++) {
+        var index = (offset + k) % count;
+        if (isFree(occupied[resource.applyAsInt(index) * problem.days() + d], from, to)) {
+          return index;
+        }
+      }
+      return -1;
+    }
+
+    private void add(int s, int d, int from, int i, int a) {
+      var lesson = assigned[s]++;
+      day[s][lesson] = d;
+      start[s][lesson] = from;
+      instructor[s][lesson] = i;
+      aircraft[s][lesson] = a;
+      var to = from + problem.lessonMinutes();
+      reserve(occupied[s * problem.days() + d], from, to);
+      reserve(occupied[problem.instructor(i) * problem.days() + d], from, to);
+      reserve(occupied[problem.aircraft(a) * problem.days() + d], from, to);
+      assignedTotal++;
+      offsetTotal += (long) d * TimeSlot.MINUTES_PER_DAY + from;
+    }
+
+    private int[] removeLast(int s) {
+      var lesson = --assigned[s];
+      var d = day[s][lesson];
+      var from = start[s][lesson];
+      var to = from + problem.lessonMinutes();
+      free(occupied[s * problem.days() + d], from, to);
+      free(occupied[problem.instructor(instructor[s][lesson]) * problem.days() + d], from, to);
+      free(occupied[problem.aircraft(aircraft[s][lesson]) * problem.days() + d], from, to);
+      assignedTotal--;
+      offsetTotal -= (long) d * TimeSlot.MINUTES_PER_DAY + from;
+      return new int[] { s, d, from, instructor[s][lesson], aircraft[s][lesson] };
+    }
+
+    private Result result() {
+      var assignments = new ArrayList<Assignment>(assignedTotal);
+      for (int s = 0; s < assigned.length; s++) {
+        for (int lesson = 0; lesson < assigned[s]; lesson++) {
+          assignments.add(new Assignment(s, lesson, instructor[s][lesson], aircraft[s][lesson], day[s][lesson], start[s][lesson]));
+        }
+      }
+      return new Result(new Plan(assignments, problem.totalLessons() - assignedTotal), score());
+    }
+  }
+}
@@ -0,0 +1,203 @@
+package io.example.wingplan;
+
+import kalix.javasdk.annotations.EntityKey;
+import kalix.javasdk.annotations.EntityType;
+import kalix.javasdk.annotations.EventHandler;
+import kalix.javasdk.eventsourcedentity.EventSourcedEntity;
+import kalix.javasdk.eventsourcedentity.EventSourcedEntityContext;
+import io.grpc.Status;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+@EntityKey({ "resourceType", "resourceId", "year", "month", "day" })
+@EntityType("dayCalendar")
+@RequestMapping("/dayCalendar/{resourceType}/{resourceId}/{year}/{month}/{day}")
+public class DayCalendarEntity extends EventSourcedEntity<DayCalendarEntity.State, DayCalendarEntity.Event> {
+  static final String NOT_AVAILABLE = "Time range is not available";
+  static final String CONFLICTING_RESERVATION = "Reservation already exists with a different time range";
+
+  private final String entityId;
+  private final EntityLogger log;
+
+  public DayCalendarEntity(EventSourcedEntityContext context) {
+    this.entityId = context.entityId();
+    this.log = EntityLogger.of(DayCalendarEntity.class, "dayCalendar", entityId);
+  }
+
+  @Override
+  public State emptyState() {
+    return State.emptyState();
+  }
+
+  @PutMapping("/reserve")
+  public Effect<String> reserve(@RequestBody ReserveCommand command) {
+    log.command("reserve", command, this::currentState);
+    if (!TimeSlot.isValid(command.year(), command.month(), command.day(), 0)) {
+      return effects().error("Year, month and day must name a calendar day", Status.Code.INVALID_ARGUMENT);
+    }
+    if (currentState().hasReservation(command.reservationId(), command.startMinute(), command.durationMinutes())) {
+      return effects().reply("OK");
+    }
+    var rejection = currentState().rejectionFor(command);
+    if (rejection.isPresent()) {
+      Metrics.increment("dayCalendar.reserve.rejected");
+      return effects().error(rejection.get(), Status.Code.FAILED_PRECONDITION);
+    }
+    return effects()
+        .emitEvent(currentState().eventFor(command))
+        .thenReply(__ -> "OK");
+  }
+
+  @PutMapping("/release")
+  public Effect<String> release(@RequestBody ReleaseCommand command) {
+    log.command("release", command, this::currentState);
+    if (currentState().reservation(command.reservationId()).isEmpty()) {
+      return effects().reply("OK");
+    }
+    return effects()
+        .emitEvent(currentState().eventFor(command))
+        .thenReply(__ -> "OK");
+  }
+
+  @GetMapping
+  public Effect<State> getDayCalendar() {
+    log.query("getDayCalendar", this::currentState);
+    return effects().reply(currentState());
+  }
+
+  // A reserve call that failed because the time range is taken, as opposed to an invalid command or a failure of
+  // the call itself. Both rejections reach the caller as a client error, so the conflict is told by its reason.
+  static boolean isConflict(Throwable error) {
+    var cause = error instanceof CompletionException ? error.getCause() : error;
+    if (cause instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()) {
+      var reason = response.getResponseBodyAsString();
+      return reason.equals(NOT_AVAILABLE) || reason.equals(CONFLICTING_RESERVATION);
+    }
+    return false;
+  }
+
+  @EventHandler
+  public State on(ReservedEvent event) {
+    return currentState().on(event);
+  }
+
+  @EventHandler
+  public State on(ReleasedEvent event) {
+    return currentState().on(event);
+  }
+
+  public record State(String resourceType, String resourceId, Integer year, Integer month, Integer day, long[] minutes, List<Reservation> reservations) {
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    static State emptyState() {
+      return new State(null, null, null, null, null, new long[(MINUTES_PER_DAY + 63) / 64], List.of());
+    }
+
+    boolean isEmpty() {
+      return resourceId == null || resourceId.isEmpty();
+    }
+
+    Optional<Reservation> reservation(String reservationId) {
+      return reservations.stream()
+          .filter(r -> r.reservationId().equals(reservationId))
+          .findFirst();
+    }
+
+    boolean hasReservation(String reservationId, Integer startMinute, Integer durationMinutes) {
+      return startMinute != null && durationMinutes != null && reservation(reservationId)
+          .filter(r -> r.startMinute() == startMinute && r.durationMinutes() == durationMinutes)
+          .isPresent();
+    }
+
+    boolean isFree(int startMinute, int durationMinutes) {
+      var end = startMinute + durationMinutes;
+      for (int word = startMinute >>> 6; word <= (end - 1) >>> 6; word++) {
+        if ((minutes[word] & mask(word, startMinute, end)) != 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    Optional<String> rejectionFor(ReserveCommand command) {
+      if (command.reservationId() == null || command.reservationId().isEmpty()) {
+        return Optional.of("Reservation id is required");
+      }
+      if (command.startMinute() == null || command.durationMinutes() == null
+          || command.startMinute() < 0 || command.durationMinutes() <= 0
+          || command.startMinute() + command.durationMinutes() > MINUTES_PER_DAY) {
+        return Optional.of("Time range must be within the day");
+      }
+      if (reservation(command.reservationId()).isPresent()) {
+        return Optional.of(CONFLICTING_RESERVATION);
+      }
+      if (!isFree(command.startMinute(), command.durationMinutes())) {
+        return Optional.of(NOT_AVAILABLE);
+      }
+      return Optional.empty();
+    }
+
+    Event eventFor(ReserveCommand command) {
+      return new ReservedEvent(command.resourceType(), command.resourceId(), command.year(), command.month(), command.day(),
+          command.reservationId(), command.startMinute(), command.durationMinutes());
+    }
+
+    Event eventFor(ReleaseCommand command) {
+      var reservation = reservation(command.reservationId()).orElseThrow();
+      return new ReleasedEvent(command.resourceType(), command.resourceId(), command.year(), command.month(), command.day(),
+          reservation.reservationId(), reservation.startMinute(), reservation.durationMinutes());
+    }
+
+    State on(ReservedEvent event) {
+      var reservations = new ArrayList<>(this.reservations);
+      reservations.add(new Reservation(event.reservationId(), event.startMinute(), event.durationMinutes()));
+      return new State(event.resourceType(), event.resourceId(), event.year(), event.month(), event.day(),
+          update(event.startMinute(), event.durationMinutes(), true), reservations);
+    }
+
+    State on(ReleasedEvent event) {
+      var reservations = new ArrayList<>(this.reservations);
+      if (!reservations.removeIf(r -> r.reservationId().equals(event.reservationId()))) {
+        return this;
+      }
+      return new State(resourceType, resourceId, year, month, day, update(event.startMinute(), event.durationMinutes(), false), reservations);
+    }
+
+    private long[] update(int startMinute, int durationMinutes, boolean reserved) {
+      var end = startMinute + durationMinutes;
+      var updated = Arrays.copyOf(minutes, minutes.length);
+      for (int word = startMinute >>> 6; word <= (end - 1) >>> 6; word++) {
+        updated[word] = reserved ? updated[word] | mask(word, startMinute, end) : updated[word] & ~mask(word, startMinute, end);
+      }
+      return updated;
+    }
+
+    private static long mask(int word, int startMinute, int end) {
+      var from = Math.max(startMinute, word << 6) - (word << 6);
+      var to = Math.min(end, (word + 1) << 6) - (word << 6);
+      return to - from == 64 ? -1L : ((1L << (to - from)) - 1) << from;
+    }
+  }
+
+  public record Reservation(String reservationId, int startMinute, int durationMinutes) {}
+
+  public interface Event {}
+
+  public record ReserveCommand(String resourceType, String resourceId, Integer year, Integer month, Integer day,
+      String reservationId, Integer startMinute, Integer durationMinutes) {}
+
+  public record ReservedEvent(String resourceType, String resourceId, Integer year, Integer month, Integer day,
+      String reservationId, Integer startMinute, Integer durationMinutes) implements Event {}
+
+  public record ReleaseCommand(String resourceType, String resourceId, Integer year, Integer month, Integer day, String reservationId) {}
+
+  public record ReleasedEvent(String resourceType, String resourceId, Integer year, Integer month, Integer day,
+      String reservationId, Integer startMinute, Integer durationMinutes) implements Event {}
+}
@@ -0,0 +1,63 @@
+package io.example.wingplan;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+
+// Command and query logging for the entities. Each line is a single message with key/value fields, the state is
+// only rendered when the line is actually written, and the level and sample rate are configured per entity type
+// under wing-plan.logging. Event handlers do not log, so replaying a journal on recovery produces no log lines.
+final class EntityLogger {
+  private static final Config config = ConfigFactory.load().getConfig("wing-plan.logging");
+  private final Logger log;
+  private final String entityType;
+  private final String entityId;
+  private final Level level;
+  private final double sampleRate;
+
+  private EntityLogger(Class<?> entityClass, String entityType, String entityId) {
+    this.log = LoggerFactory.getLogger(entityClass);
+    this.entityType = entityType;
+    this.entityId = entityId;
+    var settings = config.hasPath(entityType) ? config.getConfig(entityType).withFallback(config.getConfig("default")) : config.getConfig("default");
+    this.level = Level.valueOf(settings.getString("level"));
+    this.sampleRate = settings.getDouble("sample-rate");
+  }
+
+  static EntityLogger of(Class<?> entityClass, String entityType, String entityId) {
+    return new EntityLogger(entityClass, entityType, entityId);
+  }
+
+  void command(String handler, Object command, Supplier<Object> state) {
+    if (isSampled()) {
+      log.atLevel(level)
+          .addKeyValue("entityType", entityType)
+          .addKeyValue("entityId", entityId)
+          .addKeyValue("handler", handler)
+          .addKeyValue("command", command)
+          .addKeyValue("state", state)
+          .log("command");
+    }
+  }
+
+  void query(String handler, Supplier<Object> state) {
+    if (isSampled()) {
+      log.atLevel(level)
+          .addKeyValue("entityType", entityType)
+          .addKeyValue("entityId", entityId)
+          .addKeyValue("handler", handler)
+          .addKeyValue("state", state)
+          .log("query");
+    }
+  }
+
+  private boolean isSampled() {
+    return log.isEnabledForLevel(level) && (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+  }
+}
@@ -0,0 +1,120 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.spring.KalixClient;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+@RequestMapping("/freeSlots")
+public class FreeSlotSearchAction extends Action {
+  private final Logger log = LoggerFactory.getLogger(FreeSlotSearchAction.class);
+  private final KalixClient kalixClient;
+
+  public FreeSlotSearchAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  @GetMapping("/{year}/{month}/{day}")
+  public Effect<FreeSlots> search(
+      @PathVariable Integer year,
+      @PathVariable Integer month,
+      @PathVariable Integer day,
+      @RequestParam Integer fromMinute,
+      @RequestParam Integer toMinute,
+      @RequestParam Integer durationMinutes,
+      @RequestParam String instructorIds,
+      @RequestParam String aircraftIds) {
+    var query = new SearchQuery(year, month, day, fromMinute, toMinute, durationMinutes, split(instructorIds), split(aircraftIds));
+    log.info("Query: {}", query);
+
+    if (query.instructorIds().isEmpty() || query.aircraftIds().isEmpty()) {
+      return effects().reply(new FreeSlots(List.of()));
+    }
+    var instructors = kalixClient.get(calendarsPath(query, "instructor", query.instructorIds()), ResourceCalendarView.Rows.class)
+        .execute()
+        .toCompletableFuture();
+    var aircraft = kalixClient.get(calendarsPath(query, "aircraft", query.aircraftIds()), ResourceCalendarView.Rows.class)
+        .execute()
+        .toCompletableFuture();
+    return effects().asyncReply(instructors.thenCombine(aircraft, (i, a) -> search(query, i.rows(), a.rows())));
+  }
+
+  static FreeSlots search(SearchQuery query, List<ResourceCalendarView.Row> instructorRows, List<ResourceCalendarView.Row> aircraftRows) {
+    var instructors = freeWindows(query, query.instructorIds(), instructorRows);
+    var aircraft = freeWindows(query, query.aircraftIds(), aircraftRows);
+
+    var slots = new ArrayList<FreeSlot>();
+    instructors.forEach((instructorId, instructorWindows) -> aircraft.forEach((aircraftId, aircraftWindows) -> {
+      for (var window : intersect(instructorWindows, aircraftWindows, query.durationMinutes())) {
+        slots.add(new FreeSlot(instructorId, aircraftId, window.startMinute(), window.endMinute()));
+      }
+    }));
+    return new FreeSlots(slots);
+  }
+
+  // Resources without a calendar row have nothing reserved that day, so the whole day is free.
+  private static Map<String, List<ResourceCalendarView.Gap>> freeWindows(SearchQuery query, List<String> resourceIds, List<ResourceCalendarView.Row> rows) {
+    var rowsById = rows.stream().collect(Collectors.toMap(ResourceCalendarView.Row::resourceId, Function.identity()));
+    return resourceIds.stream()
+        .distinct()
+        .collect(Collectors.toMap(
+            Function.identity(),
+            id -> rowsById.getOrDefault(id, ResourceCalendarView.Row.emptyRow()).freeWithin(query.fromMinute(), query.toMinute(), query.durationMinutes()),
+            (a, b) -> a,
+            LinkedHashMap::new));
+  }
+
+  // Linear merge of two sorted lists of free windows.
+  static List<ResourceCalendarView.Gap> intersect(List<ResourceCalendarView.Gap> a, List<ResourceCalendarView.Gap> b, int durationMinutes) {
+    var windows = new ArrayList<ResourceCalendarView.Gap>();
+    int i = 0;
+    int j = 0;
+    while (i < a.size() && j < b.size()) {
+      var start = Math.max(a.get(i).startMinute(), b.get(j).startMinute());
+      var end = Math.min(a.get(i).endMinute(), b.get(j).endMinute());
+      if (end - start >= durationMinutes) {
+        windows.add(new ResourceCalendarView.Gap(start, end));
+      }
+      if (a.get(i).endMinute() < b.get(j).endMinute()) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return windows;
+  }
+
+  static String calendarsPath(SearchQuery query, String resourceType, List<String> resourceIds) {
+    var idParams = resourceIds.stream()
+        .distinct()
+        .map(id -> "resourceIds=" + URLEncoder.encode(id, StandardCharsets.UTF_8))
+        .collect(Collectors.joining("&"));
+    return "/resourceCalendars/%d/%d/%d/%s/byIds?%s".formatted(query.year(), query.month(), query.day(), resourceType, idParams);
+  }
+
+  private static List<String> split(String ids) {
+    return Arrays.stream(ids.split(","))
+        .map(String::trim)
+        .filter(id -> !id.isEmpty())
+        .toList();
+  }
+
+  public record SearchQuery(Integer year, Integer month, Integer day, Integer fromMinute, Integer toMinute, Integer durationMinutes,
+      List<String> instructorIds, List<String> aircraftIds) {}
+
+  public record FreeSlot(String instructorId, String aircraftId, int startMinute, int endMinute) {}
+
+  public record FreeSlots(List<FreeSlot> slots) {}
+}
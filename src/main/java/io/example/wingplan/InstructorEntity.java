@@ -5,19 +5,21 @@ import kalix.javasdk.annotations.EntityType;
 import kalix.javasdk.annotations.EventHandler;
 import kalix.javasdk.eventsourcedentity.EventSourcedEntity;
 import kalix.javasdk.eventsourcedentity.EventSourcedEntityContext;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+
 import org.springframework.web.bind.annotation.*;
 
-@EntityKey("studentId")
-@EntityType("student")
-@RequestMapping("/student/{studentId}")
+@EntityKey("instructorId")
+@EntityType("instructor")
+@RequestMapping("/instructor/{instructorId}")
 public class InstructorEntity extends EventSourcedEntity<InstructorEntity.State, InstructorEntity.Event> {
-  private final Logger log = LoggerFactory.getLogger(InstructorEntity.class);
   private final String entityId;
+  private final EntityLogger log;
 
   public InstructorEntity(EventSourcedEntityContext context) {
     this.entityId = context.entityId();
+    this.log = EntityLogger.of(InstructorEntity.class, "instructor", entityId);
   }
 
   @Override
@@ -27,7 +29,7 @@ public class InstructorEntity extends EventSourcedEntity<InstructorEntity.State,
 
   @PutMapping("/create")
   public Effect<String> createInstructor(@RequestBody CreateInstructorCommand command) {
-    log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
+    log.command("createInstructor", command, this::currentState);
     if (!currentState().isEmpty()) {
       return effects().reply("OK");
     }
@@ -38,32 +40,32 @@ public class InstructorEntity extends EventSourcedEntity<InstructorEntity.State,
 
   @GetMapping
   public Effect<State> getInstructor() {
-    log.info("EntityId: {}\n_State: {}", entityId, currentState());
+    log.query("getInstructor", this::currentState);
     return effects().reply(currentState());
   }
 
   @EventHandler
   public State on(CreatedInstructorEvent event) {
-    log.info("EntityId: {}\n_State: {}\n_Event: {}", entityId, currentState(), event);
     return currentState().on(event);
   }
 
-  public record State(String studentId, String name, String courseId) {
+  // The instructor id was first stored under studentId, the alias reads the journals and snapshots written then.
+  public record State(@JsonAlias("studentId") String instructorId, String name, String courseId) {
     static State emptyState() {
       return new State(null, null, null);
     }
 
     boolean isEmpty() {
-      return studentId == null || studentId.isEmpty();
+      return instructorId == null || instructorId.isEmpty();
     }
 
     CreatedInstructorEvent eventFor(CreateInstructorCommand command) {
-      return new CreatedInstructorEvent(command.studentId(), command.name(), command.courseId());
+      return new CreatedInstructorEvent(command.instructorId(), command.name(), command.courseId());
     }
 
     State on(CreatedInstructorEvent event) {
       if (isEmpty()) {
-        return new State(event.studentId(), event.name(), event.courseId());
+        return new State(event.instructorId(), event.name(), event.courseId());
       } else {
         return this;
       }
@@ -72,7 +74,7 @@ public class InstructorEntity extends EventSourcedEntity<InstructorEntity.State,
 
   public interface Event {}
 
-  public record CreateInstructorCommand(String studentId, String name, String courseId) {}
+  public record CreateInstructorCommand(@JsonAlias("studentId") String instructorId, String name, String courseId) {}
 
-  public record CreatedInstructorEvent(String studentId, String name, String courseId) implements Event {}
+  public record CreatedInstructorEvent(@JsonAlias("studentId") String instructorId, String name, String courseId) implements Event {}
 }
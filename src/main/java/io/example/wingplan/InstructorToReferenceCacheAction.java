@@ -0,0 +1,13 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.javasdk.annotations.Subscribe;
+
+@Subscribe.EventSourcedEntity(value = InstructorEntity.class)
+public class InstructorToReferenceCacheAction extends Action {
+
+  public Effect<String> on(InstructorEntity.CreatedInstructorEvent event) {
+    ReferenceDataCache.invalidate("instructor", event.instructorId());
+    return effects().reply("OK");
+  }
+}
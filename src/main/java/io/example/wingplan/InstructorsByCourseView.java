@@ -0,0 +1,32 @@
+package io.example.wingplan;
+
+import kalix.javasdk.annotations.Query;
+import kalix.javasdk.annotations.Subscribe;
+import kalix.javasdk.annotations.Table;
+import kalix.javasdk.annotations.ViewId;
+import kalix.javasdk.view.View;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+@ViewId("instructors_by_course")
+@Table("instructors_by_course")
+@Subscribe.EventSourcedEntity(value = InstructorEntity.class)
+public class InstructorsByCourseView extends View<InstructorsByCourseView.Row> {
+
+  @GetMapping("/instructorsByCourse/{courseId}")
+  @Query("SELECT * AS rows FROM instructors_by_course WHERE courseId = :courseId")
+  public Rows getInstructorsByCourse(@PathVariable String courseId) {
+    return null;
+  }
+
+  public UpdateEffect<Row> on(InstructorEntity.CreatedInstructorEvent event) {
+    return effects().updateState(new Row(event.instructorId(), event.name(), event.courseId()));
+  }
+
+  public record Row(String instructorId, String name, String courseId) {}
+
+  public record Rows(List<Row> rows) {}
+}
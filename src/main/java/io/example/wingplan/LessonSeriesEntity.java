@@ -0,0 +1,306 @@
+package io.example.wingplan;
+
+import kalix.javasdk.annotations.EntityKey;
+import kalix.javasdk.annotations.EntityType;
+import kalix.javasdk.annotations.EventHandler;
+import kalix.javasdk.eventsourcedentity.EventSourcedEntity;
+import kalix.javasdk.eventsourcedentity.EventSourcedEntityContext;
+import io.grpc.Status;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.web.bind.annotation.*;
+
+// A weekly (or any whole number of days) lesson slot for one student, instructor and aircraft. The series only
+// records the rule and the exceptions, the training sessions are booked a rolling horizon ahead by
+// LessonSeriesMaterializerAction.
+@EntityKey("seriesId")
+@EntityType("lessonSeries")
+@RequestMapping("/lessonSeries/{seriesId}")
+public class LessonSeriesEntity extends EventSourcedEntity<LessonSeriesEntity.State, LessonSeriesEntity.Event> {
+  private final String entityId;
+  private final EntityLogger log;
+
+  public LessonSeriesEntity(EventSourcedEntityContext context) {
+    this.entityId = context.entityId();
+    this.log = EntityLogger.of(LessonSeriesEntity.class, "lessonSeries", entityId);
+  }
+
+  @Override
+  public State emptyState() {
+    return State.emptyState();
+  }
+
+  @PutMapping("/create")
+  public Effect<String> create(@RequestBody CreateSeriesCommand command) {
+    log.command("create", command, this::currentState);
+    if (!currentState().isEmpty()) {
+      return effects().reply("OK");
+    }
+    var rejection = State.rejectionFor(command);
+    if (rejection.isPresent()) {
+      return effects().error(rejection.get(), Status.Code.INVALID_ARGUMENT);
+    }
+    return effects()
+        .emitEvent(currentState().eventFor(command))
+        .thenReply(__ -> "OK");
+  }
+
+  @PutMapping("/materialize")
+  public Effect<Materialized> materialize(@RequestBody MaterializeCommand command) {
+    log.command("materialize", command, this::currentState);
+    if (currentState().isEmpty()) {
+      return effects().error("Lesson series not found", Status.Code.NOT_FOUND);
+    }
+    var event = currentState().eventFor(command);
+    if (event.isEmpty()) {
+      return effects().reply(currentState().materialized(command));
+    }
+    return effects()
+        .emitEvent(event.get())
+        .thenReply(state -> state.materialized(command));
+  }
+
+  @PutMapping("/skip")
+  public Effect<String> skip(@RequestBody SkipOccurrenceCommand command) {
+    log.command("skip", command, this::currentState);
+    var rejection = currentState().rejectionFor(command);
+    if (rejection.isPresent()) {
+      return effects().error(rejection.get(), Status.Code.FAILED_PRECONDITION);
+    }
+    if (currentState().skipped().contains(TimeSlot.epochMinute(command.startTime()))) {
+      return effects().reply("OK");
+    }
+    if (State.hasStarted(TimeSlot.epochMinute(command.startTime()), Instant.now())) {
+      return effects().error("Occurrence at %s has already started".formatted(command.startTime()), Status.Code.FAILED_PRECONDITION);
+    }
+    return effects()
+        .emitEvent(currentState().eventFor(command))
+        .thenReply(__ -> "OK");
+  }
+
+  @PutMapping("/cancel")
+  public Effect<String> cancel(@RequestBody CancelSeriesCommand command) {
+    log.command("cancel", command, this::currentState);
+    if (currentState().isEmpty()) {
+      return effects().error("Lesson series not found", Status.Code.NOT_FOUND);
+    }
+    if (currentState().cancelled()) {
+      return effects().reply("OK");
+    }
+    return effects()
+        .emitEvent(currentState().eventFor(command))
+        .thenReply(__ -> "OK");
+  }
+
+  @GetMapping
+  public Effect<State> getLessonSeries() {
+    log.query("getLessonSeries", this::currentState);
+    return effects().reply(currentState());
+  }
+
+  @EventHandler
+  public State on(SeriesCreatedEvent event) {
+    return currentState().on(event);
+  }
+
+  @EventHandler
+  public State on(OccurrencesMaterializedEvent event) {
+    return currentState().on(event);
+  }
+
+  @EventHandler
+  public State on(OccurrenceSkippedEvent event) {
+    return currentState().on(event);
+  }
+
+  @EventHandler
+  public State on(SeriesCancelledEvent event) {
+    return currentState().on(event);
+  }
+
+  public record State(
+      String seriesId,
+      String studentId,
+      String instructorId,
+      String aircraftId,
+      long firstStartEpochMinute,
+      int durationMinutes,
+      int intervalDays,
+      int occurrences,
+      int materializedCount,
+      List<Long> skipped,
+      boolean cancelled) {
+    static State emptyState() {
+      return new State(null, null, null, null, 0, 0, 0, 0, 0, List.of(), false);
+    }
+
+    boolean isEmpty() {
+      return seriesId == null || seriesId.isEmpty();
+    }
+
+    static Optional<String> rejectionFor(CreateSeriesCommand command) {
+      if (command.firstStartTime() == null || command.duration() == null || command.duration().isNegative() || command.duration().isZero()) {
+        return Optional.of("First start time and a positive duration are required");
+      }
+      if (command.intervalDays() == null || command.intervalDays() <= 0 || command.occurrences() == null || command.occurrences() <= 0) {
+        return Optional.of("Interval days and occurrences must be positive");
+      }
+      return Optional.empty();
+    }
+
+    Optional<String> rejectionFor(SkipOccurrenceCommand command) {
+      if (isEmpty()) {
+        return Optional.of("Lesson series not found");
+      }
+      if (cancelled) {
+        return Optional.of("Lesson series has been cancelled");
+      }
+      if (indexOf(TimeSlot.epochMinute(command.startTime())) < 0) {
+        return Optional.of("No occurrence of the series starts at " + command.startTime());
+      }
+      return Optional.empty();
+    }
+
+    // An occurrence has started once its start minute has passed, until then it is still booked by materialize.
+    static boolean hasStarted(long startEpochMinute, Instant now) {
+      return startEpochMinute < TimeSlot.epochMinute(now);
+    }
+
+    // A booked occurrence is withdrawn once it is skipped or the series is cancelled.
+    boolean isWithdrawn(long startEpochMinute) {
+      return cancelled || skipped.contains(startEpochMinute);
+    }
+
+    long startOf(int index) {
+      return firstStartEpochMinute + (long) index * intervalDays * TimeSlot.MINUTES_PER_DAY;
+    }
+
+    int indexOf(long startEpochMinute) {
+      var offset = startEpochMinute - firstStartEpochMinute;
+      var interval = (long) intervalDays * TimeSlot.MINUTES_PER_DAY;
+      if (offset < 0 || offset % interval != 0 || offset / interval >= occurrences) {
+        return -1;
+      }
+      return (int) (offset / interval);
+    }
+
+    // Occurrences that start before the horizon end are materialized, in order.
+    int materializedCountFor(Instant horizonEnd) {
+      var horizonEndMinute = TimeSlot.epochMinute(horizonEnd);
+      var count = materializedCount;
+      while (count < occurrences && startOf(count) < horizonEndMinute) {
+        count++;
+      }
+      return count;
+    }
+
+    // The sessions to book are all materialized occurrences that have not started yet and were not skipped. Booking
+    // is idempotent, so returning ones that were booked before makes a retried materialize complete the bookings
+    // that a failed one left out.
+    Materialized materialized(MaterializeCommand command) {
+      if (cancelled) {
+        return new Materialized(List.of(), null);
+      }
+      var sessions = new ArrayList<TrainingSessionEntity.ScheduleCommand>();
+      for (int i = 0; i < materializedCount; i++) {
+        var start = startOf(i);
+        if (!hasStarted(start, command.now()) && !skipped.contains(start)) {
+          sessions.add(scheduleCommand(start));
+        }
+      }
+      var horizon = Duration.between(command.now(), command.horizonEnd());
+      var nextMaterializeTime = materializedCount < occurrences
+          ? new TimeSlot(startOf(materializedCount), durationMinutes).startTime().minus(horizon)
+          : null;
+      return new Materialized(sessions, nextMaterializeTime);
+    }
+
+    TrainingSessionEntity.ScheduleCommand scheduleCommand(long startEpochMinute) {
+      var slot = new TimeSlot(startEpochMinute, durationMinutes);
+      return new TrainingSessionEntity.ScheduleCommand(studentId, instructorId, aircraftId, slot.startTime(), slot.duration());
+    }
+
+    Event eventFor(CreateSeriesCommand command) {
+      var slot = TimeSlot.of(command.firstStartTime(), command.duration());
+      return new SeriesCreatedEvent(command.seriesId(), command.studentId(), command.instructorId(), command.aircraftId(),
+          slot.epochMinute(), slot.durationMinutes(), command.intervalDays(), command.occurrences());
+    }
+
+    Optional<Event> eventFor(MaterializeCommand command) {
+      var count = materializedCountFor(command.horizonEnd());
+      return cancelled || count == materializedCount
+          ? Optional.empty()
+          : Optional.of(new OccurrencesMaterializedEvent(seriesId, count));
+    }
+
+    Event eventFor(SkipOccurrenceCommand command) {
+      var start = TimeSlot.epochMinute(command.startTime());
+      return new OccurrenceSkippedEvent(seriesId, studentId, instructorId, aircraftId, start, durationMinutes, indexOf(start) < materializedCount);
+    }
+
+    Event eventFor(CancelSeriesCommand command) {
+      var booked = new ArrayList<Long>();
+      for (int i = 0; i < materializedCount; i++) {
+        if (!skipped.contains(startOf(i))) {
+          booked.add(startOf(i));
+        }
+      }
+      return new SeriesCancelledEvent(seriesId, studentId, instructorId, aircraftId, booked, durationMinutes, command.reason());
+    }
+
+    State on(SeriesCreatedEvent event) {
+      if (isEmpty()) {
+        return new State(event.seriesId(), event.studentId(), event.instructorId(), event.aircraftId(), event.firstStartEpochMinute(),
+            event.durationMinutes(), event.intervalDays(), event.occurrences(), 0, List.of(), false);
+      } else {
+        return this;
+      }
+    }
+
+    State on(OccurrencesMaterializedEvent event) {
+      return new State(seriesId, studentId, instructorId, aircraftId, firstStartEpochMinute, durationMinutes, intervalDays, occurrences,
+          Math.max(materializedCount, event.materializedCount()), skipped, cancelled);
+    }
+
+    State on(OccurrenceSkippedEvent event) {
+      var skipped = new ArrayList<>(this.skipped);
+      skipped.add(event.startEpochMinute());
+      return new State(seriesId, studentId, instructorId, aircraftId, firstStartEpochMinute, durationMinutes, intervalDays, occurrences,
+          materializedCount, skipped, cancelled);
+    }
+
+    State on(SeriesCancelledEvent event) {
+      return new State(seriesId, studentId, instructorId, aircraftId, firstStartEpochMinute, durationMinutes, intervalDays, occurrences,
+          materializedCount, skipped, true);
+    }
+  }
+
+  public interface Event {}
+
+  public record CreateSeriesCommand(String seriesId, String studentId, String instructorId, String aircraftId, Instant firstStartTime,
+      Duration duration, Integer intervalDays, Integer occurrences) {}
+
+  public record SeriesCreatedEvent(String seriesId, String studentId, String instructorId, String aircraftId, long firstStartEpochMinute,
+      int durationMinutes, int intervalDays, int occurrences) implements Event {}
+
+  public record MaterializeCommand(String seriesId, Instant now, Instant horizonEnd) {}
+
+  public record OccurrencesMaterializedEvent(String seriesId, int materializedCount) implements Event {}
+
+  public record SkipOccurrenceCommand(String seriesId, Instant startTime) {}
+
+  public record OccurrenceSkippedEvent(String seriesId, String studentId, String instructorId, String aircraftId, long startEpochMinute,
+      int durationMinutes, boolean materialized) implements Event {}
+
+  public record CancelSeriesCommand(String seriesId, String reason) {}
+
+  public record SeriesCancelledEvent(String seriesId, String studentId, String instructorId, String aircraftId, List<Long> bookedStartEpochMinutes,
+      int durationMinutes, String reason) implements Event {}
+
+  public record Materialized(List<TrainingSessionEntity.ScheduleCommand> sessions, Instant nextMaterializeTime) {}
+}
@@ -0,0 +1,94 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.spring.KalixClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import com.typesafe.config.ConfigFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+import akka.Done;
+
+// Books the occurrences of a lesson series that start within the horizon, then sets a timer that calls back
+// when the next occurrence enters the horizon. Each series has at most one pending timer. A series can be
+// cancelled, or an occurrence skipped, while its bookings are in flight, after LessonSeriesToTrainingSessionAction
+// has cancelled what was booked until then. The series is read again once the bookings complete, and the ones it
+// no longer wants are cancelled.
+@RequestMapping("/lessonSeriesMaterializer")
+public class LessonSeriesMaterializerAction extends Action {
+  private static final Duration HORIZON = Duration.ofDays(ConfigFactory.load().getInt("wing-plan.lesson-series.horizon-days"));
+  private final Logger log = LoggerFactory.getLogger(LessonSeriesMaterializerAction.class);
+  private final KalixClient kalixClient;
+
+  public LessonSeriesMaterializerAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  @PutMapping("/materialize")
+  public Effect<String> materialize(@RequestBody MaterializeRequest request) {
+    log.info("Request: {}", request);
+    var now = Instant.now();
+    var command = new LessonSeriesEntity.MaterializeCommand(request.seriesId(), now, now.plus(HORIZON));
+    return effects().asyncReply(
+        kalixClient.put("/lessonSeries/%s/materialize".formatted(request.seriesId()), command, LessonSeriesEntity.Materialized.class)
+            .execute()
+            .thenCompose(materialized -> book(materialized.sessions())
+                .thenCompose(__ -> cancelWithdrawn(request, materialized.sessions()))
+                .thenCompose(__ -> scheduleNext(request, now, materialized.nextMaterializeTime())))
+            .thenApply(__ -> "OK"));
+  }
+
+  private CompletableFuture<Void> book(List<TrainingSessionEntity.ScheduleCommand> sessions) {
+    return CompletableFuture.allOf(sessions.stream()
+        .map(session -> kalixClient.put("/trainingSessionBooking/schedule", session, TrainingSessionBookingAction.BookingResult.class)
+            .execute()
+            .toCompletableFuture()
+            .thenAccept(result -> {
+              if ("rejected".equals(result.status())) {
+                log.warn("Occurrence rejected: {}, reason: {}", session, result.reason());
+                Metrics.increment("lessonSeries.occurrence.rejected");
+              }
+            }))
+        .toArray(CompletableFuture[]::new));
+  }
+
+  private CompletionStage<Void> cancelWithdrawn(MaterializeRequest request, List<TrainingSessionEntity.ScheduleCommand> sessions) {
+    if (sessions.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return kalixClient.get("/lessonSeries/%s".formatted(request.seriesId()), LessonSeriesEntity.State.class)
+        .execute()
+        .thenCompose(series -> CompletableFuture.allOf(sessions.stream()
+            .filter(session -> series.isWithdrawn(TimeSlot.epochMinute(session.startTime())))
+            .map(session -> {
+              log.info("Occurrence withdrawn while booking: {}", session);
+              var command = new TrainingSessionEntity.CancelCommand(session.studentId(), session.instructorId(), session.aircraftId(),
+                  session.startTime(), Instant.now(), series.cancelled() ? "Lesson series cancelled" : "Occurrence skipped");
+              return kalixClient.put("/trainingSessionBooking/cancel", command, String.class).execute().toCompletableFuture();
+            })
+            .toArray(CompletableFuture[]::new)));
+  }
+
+  private CompletionStage<Done> scheduleNext(MaterializeRequest request, Instant now, Instant nextMaterializeTime) {
+    if (nextMaterializeTime == null) {
+      return timers().cancel(timerName(request));
+    }
+    var delay = Duration.between(now, nextMaterializeTime);
+    return timers().startSingleTimer(timerName(request), delay.isNegative() ? Duration.ZERO : delay,
+        kalixClient.put("/lessonSeriesMaterializer/materialize", request, String.class));
+  }
+
+  private static String timerName(MaterializeRequest request) {
+    return "lessonSeries-" + request.seriesId();
+  }
+
+  public record MaterializeRequest(String seriesId) {}
+}
@@ -0,0 +1,60 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.javasdk.annotations.Subscribe;
+import kalix.spring.KalixClient;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Starts materializing new series and cancels the booked sessions of skipped occurrences and cancelled series.
+// Occurrences that were never materialized have nothing booked, so skipping them only changes the series.
+@Subscribe.EventSourcedEntity(value = LessonSeriesEntity.class)
+public class LessonSeriesToTrainingSessionAction extends Action {
+  private final Logger log = LoggerFactory.getLogger(LessonSeriesToTrainingSessionAction.class);
+  private final KalixClient kalixClient;
+
+  public LessonSeriesToTrainingSessionAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  public Effect<String> on(LessonSeriesEntity.SeriesCreatedEvent event) {
+    log.info("Event: {}", event);
+    var request = new LessonSeriesMaterializerAction.MaterializeRequest(event.seriesId());
+    return effects().forward(kalixClient.put("/lessonSeriesMaterializer/materialize", request, String.class));
+  }
+
+  public Effect<String> on(LessonSeriesEntity.OccurrencesMaterializedEvent event) {
+    return effects().ignore();
+  }
+
+  public Effect<String> on(LessonSeriesEntity.OccurrenceSkippedEvent event) {
+    log.info("Event: {}", event);
+    if (!event.materialized()) {
+      return effects().ignore();
+    }
+    var command = cancelCommand(event.studentId(), event.instructorId(), event.aircraftId(), event.startEpochMinute(), "Occurrence skipped");
+    return effects().forward(kalixClient.put("/trainingSessionBooking/cancel", command, String.class));
+  }
+
+  // Only sessions that have not started yet are cancelled, the earlier ones are left as they are.
+  public Effect<String> on(LessonSeriesEntity.SeriesCancelledEvent event) {
+    log.info("Event: {}", event);
+    var now = TimeSlot.epochMinute(Instant.now());
+    var cancellations = event.bookedStartEpochMinutes().stream()
+        .filter(start -> start >= now)
+        .map(start -> cancelCommand(event.studentId(), event.instructorId(), event.aircraftId(), start, event.reason()))
+        .map(command -> kalixClient.put("/trainingSessionBooking/cancel", command, String.class).execute().toCompletableFuture())
+        .toArray(CompletableFuture[]::new);
+    return effects().asyncReply(CompletableFuture.allOf(cancellations).thenApply(__ -> "OK"));
+  }
+
+  private static TrainingSessionEntity.CancelCommand cancelCommand(String studentId, String instructorId, String aircraftId, long startEpochMinute,
+      String reason) {
+    var startTime = new TimeSlot(startEpochMinute, 0).startTime();
+    return new TrainingSessionEntity.CancelCommand(studentId, instructorId, aircraftId, startTime, Instant.now(), reason);
+  }
+}
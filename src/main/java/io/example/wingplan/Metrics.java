@@ -0,0 +1,23 @@
+package io.example.wingplan;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide counters, read through MetricsAction. Counters are per service instance and reset on restart.
+final class Metrics {
+  private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+  private Metrics() {}
+
+  static void increment(String name) {
+    counters.computeIfAbsent(name, __ -> new LongAdder()).increment();
+  }
+
+  static Map<String, Long> snapshot() {
+    var snapshot = new TreeMap<String, Long>();
+    counters.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+    return snapshot;
+  }
+}
@@ -0,0 +1,17 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+
+import java.util.Map;
+
+import org.springframework.web.bind.annotation.GetMapping;
+
+public class MetricsAction extends Action {
+
+  @GetMapping("/metrics")
+  public Effect<Counters> getMetrics() {
+    return effects().reply(new Counters(Metrics.snapshot()));
+  }
+
+  public record Counters(Map<String, Long> counters) {}
+}
@@ -0,0 +1,92 @@
+package io.example.wingplan;
+
+import kalix.spring.KalixClient;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.typesafe.config.ConfigFactory;
+
+// Read-through cache of the student, instructor and aircraft entities, shared by the actions of this service
+// instance. Entries are evicted in least recently used order beyond MAX_SIZE and reloaded after TTL. Concurrent
+// misses for the same entity share one load, and empty (not yet created) entities are not cached. The entities'
+// event subscriptions invalidate entries as they change, the TTL bounds how long other instances can serve the
+// old value. Hits, misses and evictions are counted in Metrics.
+final class ReferenceDataCache {
+  private static final int MAX_SIZE = ConfigFactory.load().getInt("wing-plan.reference-cache.max-size");
+  private static final long TTL_NANOS = ConfigFactory.load().getDuration("wing-plan.reference-cache.ttl").toNanos();
+  private static final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+      if (size() > MAX_SIZE) {
+        Metrics.increment("referenceCache.eviction");
+        return true;
+      }
+      return false;
+    }
+  };
+
+  private ReferenceDataCache() {}
+
+  private record Entry(CompletableFuture<?> value, long expiresAt) {}
+
+  static CompletionStage<StudentEntity.State> student(KalixClient kalixClient, String studentId) {
+    return get(key("student", studentId), () -> kalixClient.get("/student/" + studentId, StudentEntity.State.class).execute(),
+        state -> !state.isEmpty());
+  }
+
+  static CompletionStage<InstructorEntity.State> instructor(KalixClient kalixClient, String instructorId) {
+    return get(key("instructor", instructorId), () -> kalixClient.get("/instructor/" + instructorId, InstructorEntity.State.class).execute(),
+        state -> !state.isEmpty());
+  }
+
+  static CompletionStage<AircraftEntity.State> aircraft(KalixClient kalixClient, String aircraftId) {
+    return get(key("aircraft", aircraftId), () -> kalixClient.get("/aircraft/" + aircraftId, AircraftEntity.State.class).execute(),
+        state -> !state.isEmpty());
+  }
+
+  static void invalidate(String resourceType, String id) {
+    synchronized (entries) {
+      entries.remove(key(resourceType, id));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> CompletionStage<T> get(String key, Supplier<CompletionStage<T>> loader, Predicate<T> cacheable) {
+    var now = System.nanoTime();
+    var future = new CompletableFuture<T>();
+    synchronized (entries) {
+      var entry = entries.get(key);
+      if (entry != null && entry.expiresAt() - now > 0) {
+        Metrics.increment("referenceCache.hit");
+        return (CompletableFuture<T>) entry.value();
+      }
+      entries.put(key, new Entry(future, now + TTL_NANOS));
+    }
+    Metrics.increment("referenceCache.miss");
+    loader.get().whenComplete((value, error) -> {
+      if (error != null || !cacheable.test(value)) {
+        synchronized (entries) {
+          var entry = entries.get(key);
+          if (entry != null && entry.value() == future) {
+            entries.remove(key);
+          }
+        }
+      }
+      if (error != null) {
+        future.completeExceptionally(error);
+      } else {
+        future.complete(value);
+      }
+    });
+    return future;
+  }
+
+  private static String key(String resourceType, String id) {
+    return resourceType + "/" + id;
+  }
+}
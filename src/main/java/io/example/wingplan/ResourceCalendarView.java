@@ -0,0 +1,169 @@
+package io.example.wingplan;
+
+import kalix.javasdk.annotations.Query;
+import kalix.javasdk.annotations.Subscribe;
+import kalix.javasdk.annotations.Table;
+import kalix.javasdk.annotations.ViewId;
+import kalix.javasdk.view.View;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import reactor.core.publisher.Flux;
+
+@ViewId("resource_calendars")
+@Table("resource_calendars")
+@Subscribe.EventSourcedEntity(value = DayCalendarEntity.class)
+public class ResourceCalendarView extends View<ResourceCalendarView.Row> {
+  private final Logger log = LoggerFactory.getLogger(ResourceCalendarView.class);
+
+  @GetMapping("/resourceCalendars/{year}/{month}/{day}/{resourceType}")
+  @Query("""
+      SELECT * AS rows FROM resource_calendars
+        WHERE year = :year AND month = :month AND day = :day AND resourceType = :resourceType
+      """)
+  public Rows getResourceCalendars(@PathVariable Integer year, @PathVariable Integer month, @PathVariable Integer day, @PathVariable String resourceType) {
+    return null;
+  }
+
+  // Only the rows of the given resources, looked up by resource id instead of reading the whole resource type's day.
+  @GetMapping("/resourceCalendars/{year}/{month}/{day}/{resourceType}/byIds")
+  @Query("""
+      SELECT * AS rows FROM resource_calendars
+        WHERE year = :year AND month = :month AND day = :day AND resourceType = :resourceType AND resourceId = ANY(:resourceIds)
+      """)
+  public Rows getResourceCalendarsById(@PathVariable Integer year, @PathVariable Integer month, @PathVariable Integer day,
+      @PathVariable String resourceType, @RequestParam List<String> resourceIds) {
+    return null;
+  }
+
+  // Streams the matching rows and then every row again as it changes. A row is a whole resource day, so each update
+  // carries that day's current free gaps and a subscriber never has to apply reservations itself. ScheduleFeedAction
+  // serves the feeds to screens with the updates of each row conflated.
+  @GetMapping("/resourceCalendars/{year}/{month}/{day}/{resourceType}/feed")
+  @Query(value = """
+      SELECT * FROM resource_calendars
+        WHERE year = :year AND month = :month AND day = :day AND resourceType = :resourceType
+      """, streamUpdates = true)
+  public Flux<Row> streamResourceCalendars(@PathVariable Integer year, @PathVariable Integer month, @PathVariable Integer day,
+      @PathVariable String resourceType) {
+    return null;
+  }
+
+  @GetMapping("/resourceCalendars/{year}/{month}/{day}/{resourceType}/{resourceId}/feed")
+  @Query(value = """
+      SELECT * FROM resource_calendars
+        WHERE year = :year AND month = :month AND day = :day AND resourceType = :resourceType AND resourceId = :resourceId
+      """, streamUpdates = true)
+  public Flux<Row> streamResourceCalendar(@PathVariable Integer year, @PathVariable Integer month, @PathVariable Integer day,
+      @PathVariable String resourceType, @PathVariable String resourceId) {
+    return null;
+  }
+
+  @Override
+  public Row emptyState() {
+    return Row.emptyRow();
+  }
+
+  public UpdateEffect<Row> on(DayCalendarEntity.ReservedEvent event) {
+    log.info("Row: {}\n_Event: {}", viewState(), event);
+    return effects().updateState(viewState().on(event));
+  }
+
+  public UpdateEffect<Row> on(DayCalendarEntity.ReleasedEvent event) {
+    log.info("Row: {}\n_Event: {}", viewState(), event);
+    return effects().updateState(viewState().on(event));
+  }
+
+  // One resource's day as a sorted list of non-overlapping, non-adjacent free gaps [startMinute, endMinute).
+  public record Row(String resourceType, String resourceId, Integer year, Integer month, Integer day, List<Gap> freeGaps) {
+    static Row emptyRow() {
+      return new Row(null, null, null, null, null, List.of(new Gap(0, DayCalendarEntity.State.MINUTES_PER_DAY)));
+    }
+
+    Row on(DayCalendarEntity.ReservedEvent event) {
+      return new Row(event.resourceType(), event.resourceId(), event.year(), event.month(), event.day(),
+          reserve(event.startMinute(), event.startMinute() + event.durationMinutes()));
+    }
+
+    Row on(DayCalendarEntity.ReleasedEvent event) {
+      return new Row(event.resourceType(), event.resourceId(), event.year(), event.month(), event.day(),
+          release(event.startMinute(), event.startMinute() + event.durationMinutes()));
+    }
+
+    List<Gap> reserve(int start, int end) {
+      var index = indexOfFirstGapEndingAfter(freeGaps, start);
+      if (index == freeGaps.size() || freeGaps.get(index).startMinute() > start || freeGaps.get(index).endMinute() < end) {
+        return freeGaps;
+      }
+      var gap = freeGaps.get(index);
+      var gaps = new ArrayList<Gap>(freeGaps.size() + 1);
+      gaps.addAll(freeGaps.subList(0, index));
+      if (gap.startMinute() < start) {
+        gaps.add(new Gap(gap.startMinute(), start));
+      }
+      if (end < gap.endMinute()) {
+        gaps.add(new Gap(end, gap.endMinute()));
+      }
+      gaps.addAll(freeGaps.subList(index + 1, freeGaps.size()));
+      return gaps;
+    }
+
+    List<Gap> release(int start, int end) {
+      var index = indexOfFirstGapEndingAfter(freeGaps, start - 1);
+      var mergeBefore = index < freeGaps.size() && freeGaps.get(index).endMinute() == start;
+      var next = mergeBefore ? index + 1 : index;
+      if (next < freeGaps.size() && freeGaps.get(next).startMinute() < end) {
+        return freeGaps;
+      }
+      var mergeAfter = next < freeGaps.size() && freeGaps.get(next).startMinute() == end;
+      var gaps = new ArrayList<Gap>(freeGaps.size() + 1);
+      gaps.addAll(freeGaps.subList(0, index));
+      gaps.add(new Gap(mergeBefore ? freeGaps.get(index).startMinute() : start, mergeAfter ? freeGaps.get(next).endMinute() : end));
+      gaps.addAll(freeGaps.subList(mergeAfter ? next + 1 : next, freeGaps.size()));
+      return gaps;
+    }
+
+    // Free windows of at least durationMinutes that lie within [fromMinute, toMinute), found with a binary search
+    // for the first candidate gap followed by a scan over the matching gaps only.
+    List<Gap> freeWithin(int fromMinute, int toMinute, int durationMinutes) {
+      var windows = new ArrayList<Gap>();
+      for (int i = indexOfFirstGapEndingAfter(freeGaps, fromMinute); i < freeGaps.size(); i++) {
+        var gap = freeGaps.get(i);
+        if (gap.startMinute() >= toMinute) {
+          break;
+        }
+        var start = Math.max(gap.startMinute(), fromMinute);
+        var end = Math.min(gap.endMinute(), toMinute);
+        if (end - start >= durationMinutes) {
+          windows.add(new Gap(start, end));
+        }
+      }
+      return windows;
+    }
+
+    private static int indexOfFirstGapEndingAfter(List<Gap> gaps, int minute) {
+      int low = 0;
+      int high = gaps.size();
+      while (low < high) {
+        var mid = (low + high) >>> 1;
+        if (gaps.get(mid).endMinute() <= minute) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+
+  public record Gap(int startMinute, int endMinute) {}
+
+  public record Rows(List<Row> rows) {}
+}
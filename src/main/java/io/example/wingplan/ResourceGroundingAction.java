@@ -0,0 +1,144 @@
+package io.example.wingplan;
+
+import kalix.javasdk.DeferredCall;
+import kalix.javasdk.action.Action;
+import kalix.spring.KalixClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import com.typesafe.config.ConfigFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+// Cancels the scheduled sessions of a grounded resource a page at a time. The sessions are found through the
+// training_sessions view's participant index and cancelled through trainingSessionBooking, which also releases
+// their day calendar time. Each page is driven by a timer: the timer is set to fire again after the retry delay
+// before a page is processed, and moved to now once the page's progress is recorded. A run that stops halfway,
+// for example because the service restarts, is continued by the timer from the last recorded cursor.
+@RequestMapping("/grounding")
+public class ResourceGroundingAction extends Action {
+  private static final int PARALLELISM = ConfigFactory.load().getInt("wing-plan.grounding.parallelism");
+  private static final int PAGE_SIZE = ConfigFactory.load().getInt("wing-plan.grounding.page-size");
+  private static final int RETRIES = ConfigFactory.load().getInt("wing-plan.grounding.retries");
+  private static final Duration RETRY_DELAY = ConfigFactory.load().getDuration("wing-plan.grounding.retry-delay");
+  private final Logger log = LoggerFactory.getLogger(ResourceGroundingAction.class);
+  private final KalixClient kalixClient;
+
+  public ResourceGroundingAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  // Progress is read with GET /resourceGrounding/{groundingId}.
+  @PutMapping("/ground")
+  public Effect<String> ground(@RequestBody ResourceGroundingEntity.GroundCommand command) {
+    log.info("Command: {}", command);
+    var request = new ContinueRequest(command.groundingId());
+    return effects().asyncReply(
+        kalixClient.put(path(command.groundingId()) + "/create", command, String.class)
+            .execute()
+            .thenCompose(__ -> timers().startSingleTimer(timerName(request), Duration.ZERO, continueCall(request)))
+            .thenApply(__ -> "OK"));
+  }
+
+  @PutMapping("/continue")
+  public Effect<String> continueGrounding(@RequestBody ContinueRequest request) {
+    log.info("Request: {}", request);
+    return effects().asyncReply(
+        kalixClient.get(path(request.groundingId()), ResourceGroundingEntity.State.class)
+            .execute()
+            .thenCompose(grounding -> grounding.isEmpty() || grounding.done()
+                ? timers().cancel(timerName(request)).thenApply(__ -> "OK")
+                : timers().startSingleTimer(timerName(request), RETRY_DELAY, continueCall(request))
+                    .thenCompose(__ -> processPage(grounding))
+                    .thenCompose(progress -> kalixClient.put(path(request.groundingId()) + "/progress", progress, String.class).execute()
+                        .thenCompose(__ -> progress.done()
+                            ? timers().cancel(timerName(request))
+                            : timers().startSingleTimer(timerName(request), Duration.ZERO, continueCall(request))))
+                    .thenApply(__ -> "OK")));
+  }
+
+  private CompletionStage<ResourceGroundingEntity.ProgressCommand> processPage(ResourceGroundingEntity.State grounding) {
+    var page = Page.of(grounding, PAGE_SIZE);
+    return kalixClient.get(page.viewPath(), TrainingSessionsView.Rows.class)
+        .execute()
+        .thenCompose(rows -> {
+          var sessions = rows.rows().stream().filter(page::affects).toList();
+          if (rows.rows().isEmpty()) {
+            return CompletableFuture.completedFuture(new ResourceGroundingEntity.ProgressCommand(grounding.groundingId(), grounding.cursor(), 0,
+                List.of(), true));
+          }
+          var cursor = rows.rows().get(rows.rows().size() - 1).sortKey();
+          var done = rows.rows().size() < PAGE_SIZE;
+          return cancel(grounding, sessions)
+              .map(failed -> new ResourceGroundingEntity.ProgressCommand(grounding.groundingId(), cursor, sessions.size() - failed.size(), failed, done))
+              .toFuture();
+        });
+  }
+
+  // Sessions that still fail after the retries are recorded as failed, so one session cannot hold up the run.
+  private Mono<List<String>> cancel(ResourceGroundingEntity.State grounding, List<TrainingSessionsView.Row> sessions) {
+    var cancelTime = Instant.now();
+    return Flux.fromIterable(sessions)
+        .flatMap(row -> {
+          var command = cancelCommand(grounding, row, cancelTime);
+          return Mono.fromCompletionStage(() -> kalixClient.put("/trainingSessionBooking/cancel", command, String.class).execute())
+              .retryWhen(Retry.backoff(RETRIES, Duration.ofMillis(100)))
+              .map(__ -> "")
+              .onErrorResume(error -> {
+                log.warn("Failed to cancel {}: {}", row, TrainingSessionBookingAction.reasonFor(error));
+                return Mono.just(row.sortKey());
+              });
+        }, PARALLELISM)
+        .filter(sortKey -> !sortKey.isEmpty())
+        .collectList();
+  }
+
+  // The row's exact start time is part of the session's entity key.
+  static TrainingSessionEntity.CancelCommand cancelCommand(ResourceGroundingEntity.State grounding, TrainingSessionsView.Row row, Instant cancelTime) {
+    return new TrainingSessionEntity.CancelCommand(row.studentId(), row.instructorId(), row.aircraftId(), row.startTime(), cancelTime,
+        "Grounded: " + grounding.reason());
+  }
+
+  // The view is queried from a day before the grounding starts, so that sessions that start earlier and run into
+  // the grounding are found too.
+  record Page(String resourceType, String resourceId, String after, long fromMinute, long toMinute, int size) {
+    static Page of(ResourceGroundingEntity.State grounding, int size) {
+      return new Page(grounding.resourceType(), grounding.resourceId(), grounding.cursor(), TimeSlot.epochMinute(grounding.from()),
+          TimeSlot.epochMinute(grounding.to().plusSeconds(59)), size);
+    }
+
+    String viewPath() {
+      var type = Character.toUpperCase(resourceType.charAt(0)) + resourceType.substring(1);
+      return "/trainingSessions/by%s/%s?after=%s&fromMinute=%d&toMinute=%d&statuses=scheduled&limit=%d".formatted(type, resourceId,
+          TrainingSessionListingAction.PageQuery.encodeParam(after), fromMinute - TimeSlot.MINUTES_PER_DAY, toMinute, size);
+    }
+
+    boolean affects(TrainingSessionsView.Row row) {
+      return row.startEpochMinute() + row.durationMinutes() > fromMinute && row.startEpochMinute() < toMinute;
+    }
+  }
+
+  private DeferredCall<?, String> continueCall(ContinueRequest request) {
+    return kalixClient.put("/grounding/continue", request, String.class);
+  }
+
+  private static String path(String groundingId) {
+    return "/resourceGrounding/" + groundingId;
+  }
+
+  private static String timerName(ContinueRequest request) {
+    return "grounding-" + request.groundingId();
+  }
+
+  public record ContinueRequest(String groundingId) {}
+}
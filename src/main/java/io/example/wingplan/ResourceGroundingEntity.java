@@ -0,0 +1,149 @@
+package io.example.wingplan;
+
+import kalix.javasdk.annotations.EntityKey;
+import kalix.javasdk.annotations.EntityType;
+import kalix.javasdk.annotations.EventHandler;
+import kalix.javasdk.eventsourcedentity.EventSourcedEntity;
+import kalix.javasdk.eventsourcedentity.EventSourcedEntityContext;
+import io.grpc.Status;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.web.bind.annotation.*;
+
+// One run that cancels a student's, instructor's or aircraft's sessions within [from, to). The cursor is the sort
+// key of the last session of the last processed page, so ResourceGroundingAction resumes after it.
+@EntityKey("groundingId")
+@EntityType("resourceGrounding")
+@RequestMapping("/resourceGrounding/{groundingId}")
+public class ResourceGroundingEntity extends EventSourcedEntity<ResourceGroundingEntity.State, ResourceGroundingEntity.Event> {
+  private final String entityId;
+  private final EntityLogger log;
+
+  public ResourceGroundingEntity(EventSourcedEntityContext context) {
+    this.entityId = context.entityId();
+    this.log = EntityLogger.of(ResourceGroundingEntity.class, "resourceGrounding", entityId);
+  }
+
+  @Override
+  public State emptyState() {
+    return State.emptyState();
+  }
+
+  @PutMapping("/create")
+  public Effect<String> create(@RequestBody GroundCommand command) {
+    log.command("create", command, this::currentState);
+    if (!currentState().isEmpty()) {
+      return effects().reply("OK");
+    }
+    var rejection = State.rejectionFor(command);
+    if (rejection.isPresent()) {
+      return effects().error(rejection.get(), Status.Code.INVALID_ARGUMENT);
+    }
+    return effects()
+        .emitEvent(currentState().eventFor(command))
+        .thenReply(__ -> "OK");
+  }
+
+  // A page that was processed before, for example by a run that resumed after a restart, is not counted again.
+  @PutMapping("/progress")
+  public Effect<String> progress(@RequestBody ProgressCommand command) {
+    log.command("progress", command, this::currentState);
+    if (currentState().isEmpty()) {
+      return effects().error("Grounding not found", Status.Code.NOT_FOUND);
+    }
+    if (currentState().done() || command.cursor().compareTo(currentState().cursor()) <= 0 && !command.done()) {
+      return effects().reply("OK");
+    }
+    return effects()
+        .emitEvent(currentState().eventFor(command))
+        .thenReply(__ -> "OK");
+  }
+
+  @GetMapping
+  public Effect<State> getResourceGrounding() {
+    log.query("getResourceGrounding", this::currentState);
+    return effects().reply(currentState());
+  }
+
+  @EventHandler
+  public State on(GroundingCreatedEvent event) {
+    return currentState().on(event);
+  }
+
+  @EventHandler
+  public State on(GroundingProgressedEvent event) {
+    return currentState().on(event);
+  }
+
+  public record State(
+      String groundingId,
+      String resourceType,
+      String resourceId,
+      Instant from,
+      Instant to,
+      String reason,
+      String cursor,
+      int cancelledCount,
+      List<String> failedSessions,
+      boolean done) {
+    static State emptyState() {
+      return new State(null, null, null, null, null, null, "", 0, List.of(), false);
+    }
+
+    boolean isEmpty() {
+      return groundingId == null || groundingId.isEmpty();
+    }
+
+    static Optional<String> rejectionFor(GroundCommand command) {
+      if (!List.of("student", "instructor", "aircraft").contains(command.resourceType()) || command.resourceId() == null) {
+        return Optional.of("Resource type must be student, instructor or aircraft and the resource id is required");
+      }
+      if (command.from() == null || command.to() == null || !command.from().isBefore(command.to())) {
+        return Optional.of("From must be before to");
+      }
+      return Optional.empty();
+    }
+
+    Event eventFor(GroundCommand command) {
+      return new GroundingCreatedEvent(command.groundingId(), command.resourceType(), command.resourceId(), command.from(), command.to(),
+          command.reason());
+    }
+
+    Event eventFor(ProgressCommand command) {
+      return new GroundingProgressedEvent(groundingId, command.cursor(), command.cancelledCount(), command.failedSessions(), command.done());
+    }
+
+    State on(GroundingCreatedEvent event) {
+      if (isEmpty()) {
+        return new State(event.groundingId(), event.resourceType(), event.resourceId(), event.from(), event.to(), event.reason(), "", 0,
+            List.of(), false);
+      } else {
+        return this;
+      }
+    }
+
+    State on(GroundingProgressedEvent event) {
+      var failedSessions = new ArrayList<>(this.failedSessions);
+      failedSessions.addAll(event.failedSessions());
+      var cursor = event.cursor().compareTo(this.cursor) > 0 ? event.cursor() : this.cursor;
+      return new State(groundingId, resourceType, resourceId, from, to, reason, cursor, cancelledCount + event.cancelledCount(), failedSessions,
+          done || event.done());
+    }
+  }
+
+  public interface Event {}
+
+  public record GroundCommand(String groundingId, String resourceType, String resourceId, Instant from, Instant to, String reason) {}
+
+  public record ProgressCommand(String groundingId, String cursor, int cancelledCount, List<String> failedSessions, boolean done) {}
+
+  public record GroundingCreatedEvent(String groundingId, String resourceType, String resourceId, Instant from, Instant to, String reason)
+      implements Event {}
+
+  public record GroundingProgressedEvent(String groundingId, String cursor, int cancelledCount, List<String> failedSessions, boolean done)
+      implements Event {}
+}
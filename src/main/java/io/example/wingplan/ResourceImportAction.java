@@ -0,0 +1,172 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.spring.KalixClient;
+import io.grpc.Status;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typesafe.config.ConfigFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RequestMapping("/resourceImport")
+public class ResourceImportAction extends Action {
+  private static final int DEFAULT_PARALLELISM = ConfigFactory.load().getInt("wing-plan.resource-import.parallelism");
+  private static final int MAX_PARALLELISM = ConfigFactory.load().getInt("wing-plan.resource-import.max-parallelism");
+  private static final int PROGRESS_INTERVAL = ConfigFactory.load().getInt("wing-plan.resource-import.progress-interval");
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+  private static final Set<String> resourceTypes = Set.of("student", "aircraft", "instructor");
+  private static final WebClient webClient = WebClient.create();
+  private static final StringDecoder lineDecoder = StringDecoder.allMimeTypes();
+  private final Logger log = LoggerFactory.getLogger(ResourceImportAction.class);
+  private final KalixClient kalixClient;
+
+  public ResourceImportAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  // Rows are parsed one line at a time as they are pulled by the bounded flatMap, so only the rows that are in
+  // flight exist as commands. Failed rows are reported as they happen, progress every PROGRESS_INTERVAL rows, and
+  // a summary once the last row completes.
+  @PostMapping("/{resourceType}")
+  public Flux<Effect<ImportProgress>> importResources(@PathVariable String resourceType, @RequestBody ImportRequest request) {
+    log.info("ResourceType: {}, format: {}, url: {}", resourceType, request.format(), request.url());
+    if (!resourceTypes.contains(resourceType)) {
+      return Flux.just(effects().error("Unknown resource type: " + resourceType));
+    }
+    if ((request.url() == null) == (request.data() == null)) {
+      return Flux.just(effects().error("Either url or data is required", Status.Code.INVALID_ARGUMENT));
+    }
+    var parallelism = request.parallelism() == null ? DEFAULT_PARALLELISM : request.parallelism();
+    if (parallelism < 1 || parallelism > MAX_PARALLELISM) {
+      return Flux.just(effects().error("Parallelism must be between 1 and " + MAX_PARALLELISM, Status.Code.INVALID_ARGUMENT));
+    }
+    var processed = new AtomicLong();
+    var failed = new AtomicLong();
+    var csv = "csv".equalsIgnoreCase(request.format());
+
+    return lines(request)
+        .index((index, line) -> new Line(index.intValue() + 1, line))
+        .filter(line -> !line.text().isBlank() && !(csv && line.number() == 1))
+        .flatMap(line -> create(resourceType, csv, line), parallelism)
+        .map(result -> {
+          var count = processed.incrementAndGet();
+          return result.reason() == null
+              ? ImportProgress.progress(count, failed.get())
+              : ImportProgress.failure(result.number(), result.reason(), count, failed.incrementAndGet());
+        })
+        .filter(progress -> progress.row() != null || progress.processed() % PROGRESS_INTERVAL == 0)
+        .concatWith(Mono.fromSupplier(() -> ImportProgress.done(processed.get(), failed.get())))
+        .map(progress -> effects().reply(progress));
+  }
+
+  // Kalix hands the action the request body as one message, so files are fetched from the url and split into
+  // lines as the download is read, with the demand of the flatMap as backpressure. Inline data is for small imports.
+  private static Flux<String> lines(ImportRequest request) {
+    if (request.data() != null) {
+      return Flux.fromStream(() -> request.data().lines());
+    }
+    var body = webClient.get().uri(request.url()).retrieve().bodyToFlux(DataBuffer.class);
+    return lineDecoder.decode(body, ResolvableType.forClass(String.class), null, null);
+  }
+
+  private Mono<RowResult> create(String resourceType, boolean csv, Line line) {
+    return Mono.defer(() -> {
+      var row = csv ? ImportRow.fromCsv(line.text()) : ImportRow.fromJson(line.text());
+      return Mono.fromCompletionStage(kalixClient.put(row.createPath(resourceType), row.createCommand(resourceType), String.class).execute());
+    })
+        .map(reply -> new RowResult(line.number(), null))
+        .onErrorResume(error -> Mono.just(new RowResult(line.number(), TrainingSessionBookingAction.reasonFor(error))));
+  }
+
+  private record Line(int number, String text) {}
+
+  private record RowResult(int number, String reason) {}
+
+  public record ImportRequest(String format, String url, String data, Integer parallelism) {}
+
+  public record ImportProgress(Integer row, String reason, long processed, long failed, boolean done) {
+    static ImportProgress progress(long processed, long failed) {
+      return new ImportProgress(null, null, processed, failed, false);
+    }
+
+    static ImportProgress failure(int row, String reason, long processed, long failed) {
+      return new ImportProgress(row, reason, processed, failed, false);
+    }
+
+    static ImportProgress done(long processed, long failed) {
+      return new ImportProgress(null, null, processed, failed, true);
+    }
+  }
+
+  public record ImportRow(String id, String name, String courseId) {
+    static ImportRow fromJson(String line) {
+      try {
+        return valid(objectMapper.readValue(line, ImportRow.class));
+      } catch (Exception e) {
+        throw new IllegalArgumentException("Invalid JSON row: " + e.getMessage());
+      }
+    }
+
+    // id,name,courseId with optional double quotes around fields that contain commas.
+    static ImportRow fromCsv(String line) {
+      var fields = new ArrayList<String>();
+      var field = new StringBuilder();
+      var quoted = false;
+      for (int i = 0; i < line.length(); i++) {
+        var c = line.charAt(i);
+        if (c == '"' && quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = !quoted;
+        } else if (c == ',' && !quoted) {
+          fields.add(field.toString().trim());
+          field.setLength(0);
+        } else {
+          field.append(c);
+        }
+      }
+      fields.add(field.toString().trim());
+      if (fields.size() != 3) {
+        throw new IllegalArgumentException("Expected 3 CSV fields, found " + fields.size());
+      }
+      return valid(new ImportRow(fields.get(0), fields.get(1), fields.get(2)));
+    }
+
+    private static ImportRow valid(ImportRow row) {
+      if (row.id() == null || row.id().isEmpty()) {
+        throw new IllegalArgumentException("Missing id");
+      }
+      return row;
+    }
+
+    String createPath(String resourceType) {
+      return "/%s/%s/create".formatted(resourceType, URLEncoder.encode(id, StandardCharsets.UTF_8).replace("+", "%20"));
+    }
+
+    Object createCommand(String resourceType) {
+      return switch (resourceType) {
+        case "student" -> new StudentEntity.CreateStudentCommand(id, name, courseId);
+        case "aircraft" -> new AircraftEntity.CreateAircraftCommand(id, name, courseId);
+        case "instructor" -> new InstructorEntity.CreateInstructorCommand(id, name, courseId);
+        default -> throw new IllegalArgumentException(resourceType);
+      };
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+
+import java.util.function.Function;
+
+import com.typesafe.config.ConfigFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Flux;
+
+// Live feeds for dispatch screens. The view feeds stream every update of every matching row, so a subscriber that
+// reads slower than the rows change falls behind more and more. These feeds read the view feeds through the proxy
+// and keep only the latest update of each row while their subscriber is behind, so a burst of changes to one session
+// or resource day reaches a slow subscriber as one row and the view stream is never held up by it.
+@RequestMapping("/scheduleFeed")
+public class ScheduleFeedAction extends Action {
+  private static final String PROXY_URL = ConfigFactory.load().getString("wing-plan.schedule-feed.proxy-url");
+  private static final WebClient webClient = WebClient.create(PROXY_URL);
+  private final Logger log = LoggerFactory.getLogger(ScheduleFeedAction.class);
+
+  @GetMapping("/trainingSessions/{year}/{month}/{day}")
+  public Flux<Effect<TrainingSessionsView.Row>> trainingSessions(@PathVariable Integer year, @PathVariable Integer month,
+      @PathVariable Integer day) {
+    log.info("Training sessions feed: {}/{}/{}", year, month, day);
+    return conflate(stream("/trainingSessions/{year}/{month}/{day}/feed", TrainingSessionsView.Row.class, year, month, day),
+        TrainingSessionsView.Row::sortKey)
+        .map(row -> effects().reply(row));
+  }
+
+  @GetMapping("/trainingSessions/{year}/{month}/{day}/{resourceId}")
+  public Flux<Effect<TrainingSessionsView.Row>> resourceTrainingSessions(@PathVariable Integer year, @PathVariable Integer month,
+      @PathVariable Integer day, @PathVariable String resourceId) {
+    log.info("Training sessions feed: {}/{}/{}/{}", year, month, day, resourceId);
+    return conflate(stream("/trainingSessions/{year}/{month}/{day}/{resourceId}/feed",
+        TrainingSessionsView.Row.class, year, month, day, resourceId), TrainingSessionsView.Row::sortKey)
+        .map(row -> effects().reply(row));
+  }
+
+  @GetMapping("/resourceCalendars/{year}/{month}/{day}/{resourceType}")
+  public Flux<Effect<ResourceCalendarView.Row>> resourceCalendars(@PathVariable Integer year, @PathVariable Integer month,
+      @PathVariable Integer day, @PathVariable String resourceType) {
+    log.info("Resource calendars feed: {}/{}/{}/{}", year, month, day, resourceType);
+    return conflate(stream("/resourceCalendars/{year}/{month}/{day}/{resourceType}/feed",
+        ResourceCalendarView.Row.class, year, month, day, resourceType), ResourceCalendarView.Row::resourceId)
+        .map(row -> effects().reply(row));
+  }
+
+  @GetMapping("/resourceCalendars/{year}/{month}/{day}/{resourceType}/{resourceId}")
+  public Flux<Effect<ResourceCalendarView.Row>> resourceCalendar(@PathVariable Integer year, @PathVariable Integer month,
+      @PathVariable Integer day, @PathVariable String resourceType, @PathVariable String resourceId) {
+    log.info("Resource calendar feed: {}/{}/{}/{}/{}", year, month, day, resourceType, resourceId);
+    return conflate(stream("/resourceCalendars/{year}/{month}/{day}/{resourceType}/{resourceId}/feed",
+        ResourceCalendarView.Row.class, year, month, day, resourceType, resourceId), ResourceCalendarView.Row::resourceId)
+        .map(row -> effects().reply(row));
+  }
+
+  private static <T> Flux<T> stream(String uriTemplate, Class<T> type, Object... uriVariables) {
+    return webClient.get()
+        .uri(uriTemplate, uriVariables)
+        .accept(MediaType.TEXT_EVENT_STREAM)
+        .retrieve()
+        .bodyToFlux(type);
+  }
+
+  // Rows are passed on as fast as the subscriber requests them. Each key's rows are requested one at a time, and
+  // while that row waits for the subscriber, newer rows of the same key replace each other, so at most two rows per
+  // key are held however far behind the subscriber is.
+  static <T, K> Flux<T> conflate(Flux<T> rows, Function<T, K> key) {
+    return rows
+        .groupBy(key)
+        .flatMap(Flux::onBackpressureLatest, Integer.MAX_VALUE, 1);
+  }
+}
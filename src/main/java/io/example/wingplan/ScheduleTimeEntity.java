@@ -5,20 +5,31 @@ import kalix.javasdk.annotations.EntityType;
 import kalix.javasdk.annotations.EventHandler;
 import kalix.javasdk.eventsourcedentity.EventSourcedEntity;
 import kalix.javasdk.eventsourcedentity.EventSourcedEntityContext;
+import io.grpc.Status;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 @EntityKey("{year,month,day,minuteOfDay}")
 @EntityType("scheduleTime")
 @RequestMapping("/scheduleTime/{year}/{month}/{day}/{minuteOfDay}")
 public class ScheduleTimeEntity extends EventSourcedEntity<ScheduleTimeEntity.State, ScheduleTimeEntity.Event> {
-  private final Logger log = LoggerFactory.getLogger(ScheduleTimeEntity.class);
+  private static final String INVALID_TIME = "Year, month, day and minute of day must name a minute of a calendar day";
+  static final String ALREADY_SCHEDULED = "Time slot already scheduled";
   private final String entityId;
+  private final EntityLogger log;
 
   public ScheduleTimeEntity(EventSourcedEntityContext context) {
     this.entityId = context.entityId();
+    this.log = EntityLogger.of(ScheduleTimeEntity.class, "scheduleTime", entityId);
   }
 
   @Override
@@ -26,20 +37,88 @@ public class ScheduleTimeEntity extends EventSourcedEntity<ScheduleTimeEntity.St
     return State.emptyState();
   }
 
+  // Scheduling a slot that the same type and id holds confirms the hold.
   @PutMapping("/schedule")
   public Effect<String> schedule(@RequestBody ScheduleCommand command) {
-    log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
-    if (!currentState().isEmpty() && currentState().isSameTypeAndId(command.type(), command.id())) {
+    log.command("schedule", command, this::currentState);
+    if (!TimeSlot.isValid(command.year(), command.month(), command.day(), command.minuteOfDay())) {
+      return effects().error(INVALID_TIME, Status.Code.INVALID_ARGUMENT);
+    }
+    var now = Instant.now();
+    if (!currentState().isEmpty() && currentState().isSameTypeAndId(command.type(), command.id()) && !currentState().isHoldExpired(now)) {
+      return currentState().isHeld()
+          ? effects().emitEvent(currentState().holdConfirmedEvent()).thenReply(__ -> "OK")
+          : effects().reply("OK");
+    }
+    if (!currentState().isAvailable(now)) {
+      Metrics.increment("scheduleTime.schedule.rejected");
+      return effects().error(ALREADY_SCHEDULED, Status.Code.FAILED_PRECONDITION);
+    }
+    return effects()
+        .emitEvents(currentState().eventsFor(command, now))
+        .thenReply(__ -> "OK");
+  }
+
+  // Takes the slot until expiresAt, unless it is confirmed before then. Holding it again with the same type and
+  // id moves the expiry time.
+  @PutMapping("/hold")
+  public Effect<String> hold(@RequestBody HoldCommand command) {
+    log.command("hold", command, this::currentState);
+    if (!TimeSlot.isValid(command.year(), command.month(), command.day(), command.minuteOfDay())) {
+      return effects().error(INVALID_TIME, Status.Code.INVALID_ARGUMENT);
+    }
+    if (command.expiresAt() == null) {
+      return effects().error("Hold expiry time is required", Status.Code.INVALID_ARGUMENT);
+    }
+    var now = Instant.now();
+    if (!currentState().isEmpty() && currentState().isSameTypeAndId(command.type(), command.id()) && !currentState().isHoldExpired(now)) {
+      return currentState().isHeld()
+          ? effects().emitEvent(currentState().eventFor(command)).thenReply(__ -> "OK")
+          : effects().reply("OK");
+    }
+    if (!currentState().isAvailable(now)) {
+      Metrics.increment("scheduleTime.hold.rejected");
+      return effects().error(ALREADY_SCHEDULED, Status.Code.FAILED_PRECONDITION);
+    }
+    return effects()
+        .emitEvents(currentState().eventsFor(command, now))
+        .thenReply(__ -> "OK");
+  }
+
+  @PutMapping("/confirm")
+  public Effect<String> confirm(@RequestBody ConfirmHoldCommand command) {
+    log.command("confirm", command, this::currentState);
+    var now = Instant.now();
+    if (currentState().isEmpty() || !currentState().isSameTypeAndId(command.type(), command.id()) || currentState().isHoldExpired(now)) {
+      return effects().error("Time slot is not held by %s %s".formatted(command.type(), command.id()), Status.Code.FAILED_PRECONDITION);
+    }
+    if (!currentState().isHeld()) {
       return effects().reply("OK");
     }
     return effects()
-        .emitEvent(currentState().eventFor(command))
+        .emitEvent(currentState().holdConfirmedEvent())
+        .thenReply(__ -> "OK");
+  }
+
+  // Called by the hold timer. A hold that was confirmed, released or renewed since the timer was set is left as it is.
+  @PutMapping("/expireHold")
+  public Effect<String> expireHold(@RequestBody ExpireHoldCommand command) {
+    log.command("expireHold", command, this::currentState);
+    if (currentState().isEmpty() || !currentState().isSameTypeAndId(command.type(), command.id()) || !currentState().isHoldExpired(Instant.now())) {
+      return effects().reply("OK");
+    }
+    Metrics.increment("scheduleTime.hold.expired");
+    return effects()
+        .emitEvent(currentState().holdExpiredEvent())
         .thenReply(__ -> "OK");
   }
 
   @PutMapping("/release")
   public Effect<String> release(@RequestBody ReleaseCommand command) {
-    log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
+    log.command("release", command, this::currentState);
+    if (!TimeSlot.isValid(command.year(), command.month(), command.day(), command.minuteOfDay())) {
+      return effects().error(INVALID_TIME, Status.Code.INVALID_ARGUMENT);
+    }
     if (currentState().isEmpty() || !currentState().isSameTypeAndId(command.type(), command.id())) {
       return effects().reply("OK");
     }
@@ -49,85 +128,240 @@ public class ScheduleTimeEntity extends EventSourcedEntity<ScheduleTimeEntity.St
   }
 
   @GetMapping
-  public Effect<State> getScheduleTime() {
-    log.info("EntityId: {}\n_State: {}", entityId, currentState());
-    return effects().reply(currentState());
+  public Effect<ScheduleTime> getScheduleTime() {
+    log.query("getScheduleTime", this::currentState);
+    return effects().reply(ScheduleTime.of(currentState()));
+  }
+
+  // A schedule or hold call that failed because the slot is taken, as opposed to an invalid command or a failure of
+  // the call itself. Both rejections reach the caller as a client error, so the conflict is told by its reason.
+  static boolean isConflict(Throwable error) {
+    var cause = error instanceof CompletionException ? error.getCause() : error;
+    return cause instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()
+        && response.getResponseBodyAsString().equals(ALREADY_SCHEDULED);
   }
 
+  @EventHandler
+  public State on(ScheduledEventV2 event) {
+    return currentState().on(event);
+  }
+
+  @EventHandler
+  public State on(ReleasedEventV2 event) {
+    return currentState().on(event);
+  }
+
+  @EventHandler
+  public State on(HeldEvent event) {
+    return currentState().on(event);
+  }
+
+  @EventHandler
+  public State on(HoldConfirmedEvent event) {
+    return currentState().on(event);
+  }
+
+  @EventHandler
+  public State on(HoldExpiredEvent event) {
+    return currentState().on(event);
+  }
+
+  // Version 1 events are no longer emitted, these handlers replay the ones that are already in the journal.
   @EventHandler
   public State on(ScheduledEvent event) {
-    log.info("EntityId: {}\n_State: {}\n_Event: {}", entityId, currentState(), event);
     return currentState().on(event);
   }
 
+  // Rejections are no longer persisted, this handler replays rejected events that are already in the journal.
   @EventHandler
   public State on(ScheduleRejectedEvent event) {
-    log.info("EntityId: {}\n_State: {}\n_Event: {}", entityId, currentState(), event);
     return currentState().on(event);
   }
 
   @EventHandler
   public State on(ReleasedEvent event) {
-    log.info("EntityId: {}\n_State: {}\n_Event: {}", entityId, currentState(), event);
-    return currentState().on(event);
+    return currentState().on(event.upcast());
   }
 
-  public record State(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id) {
+  // The slot is always the single minute of the entity key, it is null until the minute has been scheduled.
+  // heldUntil is set while the slot is held and not yet confirmed.
+  public record State(TimeSlot slot, String type, String id, Instant heldUntil) {
     static State emptyState() {
-      return new State(null, null, null, null, null, null);
+      return new State(null, null, null, null);
+    }
+
+    // Snapshots taken before the slot was kept as a TimeSlot hold the year, month, day and minuteOfDay fields.
+    @JsonCreator
+    static State of(@JsonProperty("slot") TimeSlot slot, @JsonProperty("type") String type, @JsonProperty("id") String id,
+        @JsonProperty("heldUntil") Instant heldUntil, @JsonProperty("year") Integer year, @JsonProperty("month") Integer month,
+        @JsonProperty("day") Integer day, @JsonProperty("minuteOfDay") Integer minuteOfDay) {
+      if (slot == null && year != null) {
+        slot = new TimeSlot(TimeSlot.epochMinute(year, month, day, minuteOfDay), 1);
+      }
+      return new State(slot, type, id, heldUntil);
     }
 
     boolean isEmpty() {
-      return year == null || year.equals(0);
+      return slot == null;
     }
 
     boolean isSameTypeAndId(String type, String id) {
       return this.type != null && this.id != null && this.type.equals(type) && this.id.equals(id);
     }
 
+    boolean isAvailable() {
+      return isEmpty() || type == null && id == null;
+    }
+
+    boolean isHeld() {
+      return heldUntil != null;
+    }
+
+    boolean isHoldExpired(Instant now) {
+      return heldUntil != null && !now.isBefore(heldUntil);
+    }
+
+    // A hold that has expired does not block the slot, even before its timer has released it.
+    boolean isAvailable(Instant now) {
+      return isAvailable() || isHoldExpired(now);
+    }
+
     Event eventFor(ScheduleCommand command) {
-      if (isEmpty() || type == null && id == null) {
-        return new ScheduledEvent(command.year(), command.month(), command.day(), command.minuteOfDay(), command.type(), command.id());
+      return new ScheduledEventV2(TimeSlot.epochMinute(command.year(), command.month(), command.day(), command.minuteOfDay()), command.type(), command.id());
+    }
+
+    List<Event> eventsFor(ScheduleCommand command, Instant now) {
+      return withExpiredHold(eventFor(command), now);
+    }
+
+    Event eventFor(HoldCommand command) {
+      return new HeldEvent(TimeSlot.epochMinute(command.year(), command.month(), command.day(), command.minuteOfDay()), command.type(), command.id(),
+          command.expiresAt().getEpochSecond());
+    }
+
+    List<Event> eventsFor(HoldCommand command, Instant now) {
+      return withExpiredHold(eventFor(command), now);
+    }
+
+    Event holdConfirmedEvent() {
+      return new HoldConfirmedEvent(slot.epochMinute(), type, id);
+    }
+
+    Event holdExpiredEvent() {
+      return new HoldExpiredEvent(slot.epochMinute(), type, id);
+    }
+
+    // An expired hold that the timer has not released yet is released before the slot is taken again.
+    private List<Event> withExpiredHold(Event event, Instant now) {
+      var events = new ArrayList<Event>(2);
+      if (isHoldExpired(now)) {
+        events.add(holdExpiredEvent());
       }
-      return new ScheduleRejectedEvent(command.year(), command.month(), command.day(), command.minuteOfDay(), command.type(), command.id());
+      events.add(event);
+      return events;
     }
 
     Event eventFor(ReleaseCommand command) {
-      if (isSameTypeAndId(command.type(), command.id())) {
-        return new ReleasedEvent(command.year(), command.month(), command.day(), command.minuteOfDay(), command.type(), command.id());
+      return new ReleasedEventV2(TimeSlot.epochMinute(command.year(), command.month(), command.day(), command.minuteOfDay()), command.type(), command.id());
+    }
+
+    State on(ScheduledEventV2 event) {
+      if (isAvailable()) {
+        return new State(isEmpty() ? new TimeSlot(event.epochMinute(), 1) : slot, event.type(), event.id(), null);
+      } else {
+        return this;
       }
-      return new ScheduleRejectedEvent(command.year(), command.month(), command.day(), command.minuteOfDay(), command.type(), command.id());
     }
 
+    // Version 1 only took a slot that had never been scheduled. A released slot that was scheduled again journaled
+    // the event without taking the slot, so replay leaves such a slot released as it was.
     State on(ScheduledEvent event) {
-      if (isEmpty()) {
-        return new State(event.year(), event.month(), event.day(), event.minuteOfDay(), event.type(), event.id);
+      return isEmpty() ? on(event.upcast()) : this;
+    }
+
+    State on(HeldEvent event) {
+      if (isAvailable() || isSameTypeAndId(event.type(), event.id())) {
+        return new State(isEmpty() ? new TimeSlot(event.epochMinute(), 1) : slot, event.type(), event.id(),
+            Instant.ofEpochSecond(event.expiresEpochSecond()));
       } else {
         return this;
       }
     }
 
+    State on(HoldConfirmedEvent event) {
+      if (isSameTypeAndId(event.type(), event.id())) {
+        return new State(slot, type, id, null);
+      }
+      return this;
+    }
+
+    State on(HoldExpiredEvent event) {
+      if (isSameTypeAndId(event.type(), event.id())) {
+        return new State(slot, null, null, null);
+      }
+      return this;
+    }
+
     State on(ScheduleRejectedEvent event) {
       return this;
     }
 
-    State on(ReleasedEvent event) {
+    State on(ReleasedEventV2 event) {
       if (isSameTypeAndId(event.type(), event.id())) {
-        return new State(year, month, day, minuteOfDay, null, null);
+        return new State(slot, null, null, null);
       }
       return this;
     }
   }
 
+  // The reply of getScheduleTime keeps the fields of the scheduled slot, all null for a slot that was never scheduled.
+  public record ScheduleTime(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id,
+      @JsonInclude(JsonInclude.Include.NON_NULL) Instant heldUntil) {
+    static ScheduleTime of(State state) {
+      if (state.isEmpty()) {
+        return new ScheduleTime(null, null, null, null, null, null, null);
+      }
+      var date = state.slot().date();
+      return new ScheduleTime(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), state.slot().minuteOfDay(),
+          state.type(), state.id(), state.heldUntil());
+    }
+  }
+
   public interface Event {}
 
   public record ScheduleCommand(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id) {}
 
-  public record ScheduledEvent(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id) implements Event {}
+  public record ReleaseCommand(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id) {}
 
-  public record ScheduleRejectedEvent(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id) implements Event {}
+  public record HoldCommand(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id, Instant expiresAt) {}
 
-  public record ReleaseCommand(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id) {}
+  public record ConfirmHoldCommand(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id) {}
 
-  public record ReleasedEvent(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id) implements Event {}
+  public record ExpireHoldCommand(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id) {}
+
+  // Version 2 events identify the slot by its UTC epoch minute, the minute the entity key is made of.
+  public record ScheduledEventV2(long epochMinute, String type, String id) implements Event {}
+
+  public record ReleasedEventV2(long epochMinute, String type, String id) implements Event {}
+
+  public record HeldEvent(long epochMinute, String type, String id, long expiresEpochSecond) implements Event {}
+
+  public record HoldConfirmedEvent(long epochMinute, String type, String id) implements Event {}
+
+  public record HoldExpiredEvent(long epochMinute, String type, String id) implements Event {}
+
+  // Version 1 events, still in older journals.
+  public record ScheduledEvent(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id) implements Event {
+    ScheduledEventV2 upcast() {
+      return new ScheduledEventV2(TimeSlot.epochMinute(year, month, day, minuteOfDay), type, id);
+    }
+  }
+
+  public record ScheduleRejectedEvent(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id) implements Event {}
+
+  public record ReleasedEvent(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id) implements Event {
+    ReleasedEventV2 upcast() {
+      return new ReleasedEventV2(TimeSlot.epochMinute(year, month, day, minuteOfDay), type, id);
+    }
+  }
 }
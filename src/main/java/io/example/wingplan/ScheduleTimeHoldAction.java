@@ -0,0 +1,86 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.spring.KalixClient;
+import io.grpc.Status;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletionException;
+
+import com.typesafe.config.ConfigFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+// Holds a time slot for a limited time. The expiry timer is set before the hold is made, so a hold never
+// exists without a timer that releases it. A timer that outlives its hold finds nothing to expire. When the hold
+// fails the timer is cancelled again, a hold that it would have expired is free once its expiry time has passed.
+@RequestMapping("/scheduleTimeHold")
+public class ScheduleTimeHoldAction extends Action {
+  private static final Duration DEFAULT_TTL = ConfigFactory.load().getDuration("wing-plan.schedule-time.hold.ttl");
+  private static final Duration MAX_TTL = ConfigFactory.load().getDuration("wing-plan.schedule-time.hold.max-ttl");
+  private final Logger log = LoggerFactory.getLogger(ScheduleTimeHoldAction.class);
+  private final KalixClient kalixClient;
+
+  public ScheduleTimeHoldAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  @PutMapping("/hold")
+  public Effect<Held> hold(@RequestBody HoldRequest request) {
+    log.info("Request: {}", request);
+    if (!TimeSlot.isValid(request.year(), request.month(), request.day(), request.minuteOfDay())) {
+      return effects().error("Year, month, day and minute of day must name a minute of a calendar day", Status.Code.INVALID_ARGUMENT);
+    }
+    var ttl = request.ttl();
+    var expiresAt = Instant.now().plus(ttl);
+    var path = scheduleTimePath(request.year(), request.month(), request.day(), request.minuteOfDay());
+    var expire = new ScheduleTimeEntity.ExpireHoldCommand(request.year(), request.month(), request.day(), request.minuteOfDay(),
+        request.type(), request.id());
+    var hold = new ScheduleTimeEntity.HoldCommand(request.year(), request.month(), request.day(), request.minuteOfDay(),
+        request.type(), request.id(), expiresAt);
+    var timerName = timerName(request.year(), request.month(), request.day(), request.minuteOfDay(), request.type(), request.id());
+    return effects().asyncEffect(
+        timers().startSingleTimer(timerName, ttl, kalixClient.put(path + "/expireHold", expire, String.class))
+            .thenCompose(__ -> kalixClient.put(path + "/hold", hold, String.class).execute())
+            .thenApply(__ -> effects().reply(new Held(expiresAt)))
+            .exceptionallyCompose(error -> timers().cancel(timerName)
+                .thenApply(__ -> {
+                  if (ScheduleTimeEntity.isConflict(error)) {
+                    return effects().error(ScheduleTimeEntity.ALREADY_SCHEDULED, Status.Code.FAILED_PRECONDITION);
+                  }
+                  throw error instanceof CompletionException e ? e : new CompletionException(error);
+                })));
+  }
+
+  @PutMapping("/confirm")
+  public Effect<String> confirm(@RequestBody ScheduleTimeEntity.ConfirmHoldCommand command) {
+    log.info("Command: {}", command);
+    var path = scheduleTimePath(command.year(), command.month(), command.day(), command.minuteOfDay());
+    return effects().asyncReply(
+        kalixClient.put(path + "/confirm", command, String.class)
+            .execute()
+            .thenCompose(__ -> timers().cancel(timerName(command.year(), command.month(), command.day(), command.minuteOfDay(),
+                command.type(), command.id())))
+            .thenApply(__ -> "OK"));
+  }
+
+  private static String scheduleTimePath(Integer year, Integer month, Integer day, Integer minuteOfDay) {
+    return "/scheduleTime/%d/%d/%d/%d".formatted(year, month, day, minuteOfDay);
+  }
+
+  private static String timerName(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id) {
+    return "scheduleTimeHold-%d-%d-%d-%d-%s-%s".formatted(year, month, day, minuteOfDay, type, id);
+  }
+
+  public record HoldRequest(Integer year, Integer month, Integer day, Integer minuteOfDay, String type, String id, Long ttlSeconds) {
+    Duration ttl() {
+      var ttl = ttlSeconds == null || ttlSeconds <= 0 ? DEFAULT_TTL : Duration.ofSeconds(ttlSeconds);
+      return ttl.compareTo(MAX_TTL) > 0 ? MAX_TTL : ttl;
+    }
+  }
+
+  public record Held(Instant expiresAt) {}
+}
@@ -0,0 +1,85 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.javasdk.annotations.Subscribe;
+import kalix.spring.KalixClient;
+
+import java.util.concurrent.CompletionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Migrates the global per-minute scheduleTime journals into the resource-sharded dayCalendar entities.
+// A new subscription starts at the beginning of the scheduleTime journal, so existing slots are copied over
+// and slots that are still booked through the legacy endpoint keep the dayCalendar entities in sync.
+@Subscribe.EventSourcedEntity(value = ScheduleTimeEntity.class)
+public class ScheduleTimeToDayCalendarAction extends Action {
+  private final Logger log = LoggerFactory.getLogger(ScheduleTimeToDayCalendarAction.class);
+  private final KalixClient kalixClient;
+
+  public ScheduleTimeToDayCalendarAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  public Effect<String> on(ScheduleTimeEntity.ScheduledEventV2 event) {
+    log.info("Event: {}", event);
+    var slot = new TimeSlot(event.epochMinute(), 1);
+    var command = new DayCalendarEntity.ReserveCommand(event.type(), event.id(), slot.year(), slot.month(), slot.day(),
+        reservationId(slot.minuteOfDay()), slot.minuteOfDay(), 1);
+    return effects().asyncReply(
+        kalixClient.put(path(event.type(), event.id(), slot, "reserve"), command, String.class)
+            .execute()
+            .exceptionally(error -> skipRejected(event, error)));
+  }
+
+  public Effect<String> on(ScheduleTimeEntity.ReleasedEventV2 event) {
+    log.info("Event: {}", event);
+    var slot = new TimeSlot(event.epochMinute(), 1);
+    var command = new DayCalendarEntity.ReleaseCommand(event.type(), event.id(), slot.year(), slot.month(), slot.day(),
+        reservationId(slot.minuteOfDay()));
+    return effects().forward(kalixClient.put(path(event.type(), event.id(), slot, "release"), command, String.class));
+  }
+
+  // A held slot is reserved in the day calendar like a scheduled one, confirming it changes nothing there.
+  public Effect<String> on(ScheduleTimeEntity.HeldEvent event) {
+    return on(new ScheduleTimeEntity.ScheduledEventV2(event.epochMinute(), event.type(), event.id()));
+  }
+
+  public Effect<String> on(ScheduleTimeEntity.HoldConfirmedEvent event) {
+    return effects().ignore();
+  }
+
+  public Effect<String> on(ScheduleTimeEntity.HoldExpiredEvent event) {
+    return on(new ScheduleTimeEntity.ReleasedEventV2(event.epochMinute(), event.type(), event.id()));
+  }
+
+  public Effect<String> on(ScheduleTimeEntity.ScheduledEvent event) {
+    return on(event.upcast());
+  }
+
+  public Effect<String> on(ScheduleTimeEntity.ScheduleRejectedEvent event) {
+    return effects().ignore();
+  }
+
+  public Effect<String> on(ScheduleTimeEntity.ReleasedEvent event) {
+    return on(event.upcast());
+  }
+
+  private static String path(String type, String id, TimeSlot slot, String action) {
+    return "/dayCalendar/%s/%s/%d/%d/%d/%s".formatted(type, id, slot.year(), slot.month(), slot.day(), action);
+  }
+
+  static String reservationId(Integer minuteOfDay) {
+    return "scheduleTime-" + minuteOfDay;
+  }
+
+  // A minute that is already reserved in the day calendar was booked through the new model first, so the
+  // legacy slot is skipped. Invalid commands and failed calls are rethrown so that the event is redelivered.
+  private String skipRejected(ScheduleTimeEntity.ScheduledEventV2 event, Throwable error) {
+    if (DayCalendarEntity.isConflict(error)) {
+      log.warn("Skipped migrating {}: {}", event, TrainingSessionBookingAction.reasonFor(error));
+      return "OK";
+    }
+    throw error instanceof CompletionException e ? e : new CompletionException(error);
+  }
+}
@@ -5,19 +5,18 @@ import kalix.javasdk.annotations.EntityType;
 import kalix.javasdk.annotations.EventHandler;
 import kalix.javasdk.eventsourcedentity.EventSourcedEntity;
 import kalix.javasdk.eventsourcedentity.EventSourcedEntityContext;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.*;
 
 @EntityKey("studentId")
 @EntityType("student")
 @RequestMapping("/student/{studentId}")
 public class StudentEntity extends EventSourcedEntity<StudentEntity.State, StudentEntity.Event> {
-  private final Logger log = LoggerFactory.getLogger(StudentEntity.class);
   private final String entityId;
+  private final EntityLogger log;
 
   public StudentEntity(EventSourcedEntityContext context) {
     this.entityId = context.entityId();
+    this.log = EntityLogger.of(StudentEntity.class, "student", entityId);
   }
 
   @Override
@@ -27,7 +26,7 @@ public class StudentEntity extends EventSourcedEntity<StudentEntity.State, Stude
 
   @PutMapping("/create")
   public Effect<String> createStudent(@RequestBody CreateStudentCommand command) {
-    log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
+    log.command("createStudent", command, this::currentState);
     if (!currentState().isEmpty()) {
       return effects().reply("OK");
     }
@@ -38,13 +37,12 @@ public class StudentEntity extends EventSourcedEntity<StudentEntity.State, Stude
 
   @GetMapping
   public Effect<State> getStudent() {
-    log.info("EntityId: {}\n_State: {}", entityId, currentState());
+    log.query("getStudent", this::currentState);
     return effects().reply(currentState());
   }
 
   @EventHandler
   public State on(CreatedStudentEvent event) {
-    log.info("EntityId: {}\n_State: {}\n_Event: {}", entityId, currentState(), event);
     return currentState().on(event);
   }
 
@@ -0,0 +1,192 @@
+package io.example.wingplan;
+
+import kalix.javasdk.annotations.EntityKey;
+import kalix.javasdk.annotations.EntityType;
+import kalix.javasdk.annotations.EventHandler;
+import kalix.javasdk.eventsourcedentity.EventSourcedEntity;
+import kalix.javasdk.eventsourcedentity.EventSourcedEntityContext;
+import io.grpc.Status;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+
+import com.typesafe.config.ConfigFactory;
+
+import org.springframework.web.bind.annotation.*;
+
+// Running totals of one student's training sessions, kept up to date by TrainingSessionToStudentProgressAction.
+// Every session counts, however old it is. The most recently completed and cancelled sessions are remembered so
+// that redelivered events are ignored, and cancelling a completed session takes its flight out of the totals, with
+// the completion time in the command for a session that is no longer remembered.
+@EntityKey("studentId")
+@EntityType("studentProgress")
+@RequestMapping("/studentProgress/{studentId}")
+public class StudentProgressEntity extends EventSourcedEntity<StudentProgressEntity.State, StudentProgressEntity.Event> {
+  static final int RECENT_SESSIONS = ConfigFactory.load().getInt("wing-plan.student-progress.recent-sessions");
+  private final String entityId;
+  private final EntityLogger log;
+
+  public StudentProgressEntity(EventSourcedEntityContext context) {
+    this.entityId = context.entityId();
+    this.log = EntityLogger.of(StudentProgressEntity.class, "studentProgress", entityId);
+  }
+
+  @Override
+  public State emptyState() {
+    return State.emptyState();
+  }
+
+  @PutMapping("/completed")
+  public Effect<String> completed(@RequestBody SessionCompletedCommand command) {
+    log.command("completed", command, this::currentState);
+    if (command.sessionId() == null || command.startTime() == null || command.completedTime() == null) {
+      return effects().error("Session id, start time and completed time are required", Status.Code.INVALID_ARGUMENT);
+    }
+    if (currentState().sessions().containsKey(command.sessionId())) {
+      return effects().reply("OK");
+    }
+    return effects()
+        .emitEvent(currentState().eventFor(command))
+        .thenReply(__ -> "OK");
+  }
+
+  @PutMapping("/cancelled")
+  public Effect<String> cancelled(@RequestBody SessionCancelledCommand command) {
+    log.command("cancelled", command, this::currentState);
+    if (command.sessionId() == null || command.startTime() == null) {
+      return effects().error("Session id and start time are required", Status.Code.INVALID_ARGUMENT);
+    }
+    var session = currentState().sessions().get(command.sessionId());
+    if (session != null && session.cancelled()) {
+      return effects().reply("OK");
+    }
+    return effects()
+        .emitEvent(currentState().eventFor(command))
+        .thenReply(__ -> "OK");
+  }
+
+  @GetMapping
+  public Effect<State> getStudentProgress() {
+    log.query("getStudentProgress", this::currentState);
+    return effects().reply(currentState());
+  }
+
+  @EventHandler
+  public State on(SessionCompletedEvent event) {
+    return currentState().on(event);
+  }
+
+  @EventHandler
+  public State on(SessionCancelledEvent event) {
+    return currentState().on(event);
+  }
+
+  // sessions are the most recently completed and cancelled sessions by session id, in the order they were first
+  // seen. The event handlers update the map in place, the entity only ever reads its current state.
+  public record State(
+      String studentId,
+      String courseId,
+      int completedCount,
+      int cancelledCount,
+      long flownMinutes,
+      Instant lastFlightTime,
+      LinkedHashMap<String, Session> sessions) {
+    static State emptyState() {
+      return new State(null, null, 0, 0, 0, null, new LinkedHashMap<>());
+    }
+
+    boolean isEmpty() {
+      return studentId == null || studentId.isEmpty();
+    }
+
+    Event eventFor(SessionCompletedCommand command) {
+      var startEpochMinute = TimeSlot.epochMinute(command.startTime());
+      return new SessionCompletedEvent(command.studentId(), command.courseId(), command.sessionId(), startEpochMinute,
+          minutes(command.startTime(), command.completedTime()));
+    }
+
+    // A remembered completed session is taken out with its recorded minutes, one that is no longer remembered with
+    // the minutes from the completion time in the command.
+    Event eventFor(SessionCancelledCommand command) {
+      var session = sessions.get(command.sessionId());
+      var completedMinutes = session != null
+          ? (session.cancelled() ? null : Integer.valueOf(session.minutes()))
+          : (command.completedTime() == null ? null : Integer.valueOf(minutes(command.startTime(), command.completedTime())));
+      return new SessionCancelledEvent(command.studentId(), command.courseId(), command.sessionId(), TimeSlot.epochMinute(command.startTime()),
+          completedMinutes);
+    }
+
+    // Whole minutes started between the start and completion time.
+    private static int minutes(Instant startTime, Instant completedTime) {
+      var endEpochMinute = TimeSlot.epochMinute(completedTime.plusSeconds(59));
+      return (int) Math.max(0, endEpochMinute - TimeSlot.epochMinute(startTime));
+    }
+
+    State on(SessionCompletedEvent event) {
+      if (sessions.containsKey(event.sessionId())) {
+        return this;
+      }
+      remember(event.sessionId(), new Session(event.startEpochMinute(), event.minutes(), false));
+      var flightTime = new TimeSlot(event.startEpochMinute(), 0).startTime();
+      var lastFlightTime = this.lastFlightTime == null || flightTime.isAfter(this.lastFlightTime) ? flightTime : this.lastFlightTime;
+      return new State(event.studentId(), courseIdFor(event.courseId()), completedCount + 1, cancelledCount, flownMinutes + event.minutes(),
+          lastFlightTime, sessions);
+    }
+
+    // A cancelled session that was completed before is no longer counted as flown. Events written before they
+    // carried the completed minutes only take out remembered sessions.
+    State on(SessionCancelledEvent event) {
+      var existing = sessions.get(event.sessionId());
+      if (existing != null && existing.cancelled()) {
+        return this;
+      }
+      var completedMinutes = existing != null ? Integer.valueOf(existing.minutes()) : event.completedMinutes();
+      remember(event.sessionId(), new Session(event.startEpochMinute(), 0, true));
+      if (completedMinutes == null) {
+        return new State(event.studentId(), courseIdFor(event.courseId()), completedCount, cancelledCount + 1, flownMinutes, lastFlightTime, sessions);
+      }
+      var lastFlightTime = this.lastFlightTime != null && TimeSlot.epochMinute(this.lastFlightTime) == event.startEpochMinute()
+          ? latestRememberedFlightTime()
+          : this.lastFlightTime;
+      return new State(event.studentId(), courseIdFor(event.courseId()), completedCount - 1, cancelledCount + 1,
+          flownMinutes - completedMinutes, lastFlightTime, sessions);
+    }
+
+    private void remember(String sessionId, Session session) {
+      sessions.put(sessionId, session);
+      for (var eldest = sessions.entrySet().iterator(); sessions.size() > RECENT_SESSIONS; ) {
+        eldest.next();
+        eldest.remove();
+      }
+    }
+
+    private String courseIdFor(String eventCourseId) {
+      return eventCourseId != null ? eventCourseId : courseId;
+    }
+
+    // Only the remembered sessions are searched, once the last flight itself is cancelled.
+    private Instant latestRememberedFlightTime() {
+      return sessions.values().stream()
+          .filter(s -> !s.cancelled())
+          .mapToLong(Session::startEpochMinute)
+          .max()
+          .stream()
+          .mapToObj(minute -> new TimeSlot(minute, 0).startTime())
+          .findFirst()
+          .orElse(null);
+    }
+  }
+
+  public record Session(long startEpochMinute, int minutes, boolean cancelled) {}
+
+  public interface Event {}
+
+  public record SessionCompletedCommand(String studentId, String courseId, String sessionId, Instant startTime, Instant completedTime) {}
+
+  public record SessionCancelledCommand(String studentId, String courseId, String sessionId, Instant startTime, Instant completedTime) {}
+
+  public record SessionCompletedEvent(String studentId, String courseId, String sessionId, long startEpochMinute, int minutes) implements Event {}
+
+  public record SessionCancelledEvent(String studentId, String courseId, String sessionId, long startEpochMinute, Integer completedMinutes)
+      implements Event {}
+}
@@ -0,0 +1,13 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.javasdk.annotations.Subscribe;
+
+@Subscribe.EventSourcedEntity(value = StudentEntity.class)
+public class StudentToReferenceCacheAction extends Action {
+
+  public Effect<String> on(StudentEntity.CreatedStudentEvent event) {
+    ReferenceDataCache.invalidate("student", event.studentId());
+    return effects().reply("OK");
+  }
+}
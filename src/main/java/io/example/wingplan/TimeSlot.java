@@ -0,0 +1,118 @@
+package io.example.wingplan;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// A span of whole minutes, [epochMinute, epochMinute + durationMinutes) in UTC. Entity state holds the two
+// primitives, the calendar fields of the year/month/day/minuteOfDay path parameters are converted with LocalDate.
+public record TimeSlot(long epochMinute, int durationMinutes) {
+  static final int MINUTES_PER_DAY = 24 * 60;
+
+  static TimeSlot of(int year, int month, int day, int minuteOfDay, int durationMinutes) {
+    return new TimeSlot(epochMinute(year, month, day, minuteOfDay), durationMinutes);
+  }
+
+  // The start is rounded down and the end up, so the slot covers every minute that the time range touches.
+  static TimeSlot of(Instant startTime, Duration duration) {
+    var start = epochMinute(startTime);
+    var end = startTime.plus(duration);
+    var endMinute = Math.floorDiv(end.getEpochSecond() + (end.getNano() > 0 ? 60 : 59), 60);
+    return new TimeSlot(start, (int) (endMinute - start));
+  }
+
+  static long epochMinute(Instant time) {
+    return Math.floorDiv(time.getEpochSecond(), 60);
+  }
+
+  static long epochMinute(int year, int month, int day, int minuteOfDay) {
+    if (minuteOfDay < 0 || minuteOfDay >= MINUTES_PER_DAY) {
+      throw new IllegalArgumentException("Invalid minute of day " + minuteOfDay);
+    }
+    return epochDay(year, month, day) * MINUTES_PER_DAY + minuteOfDay;
+  }
+
+  static long epochDay(int year, int month, int day) {
+    try {
+      return LocalDate.of(year, month, day).toEpochDay();
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("Invalid date %d/%d/%d".formatted(year, month, day), e);
+    }
+  }
+
+  // Whether the year/month/day/minuteOfDay path parameters name a minute of a calendar day.
+  static boolean isValid(Integer year, Integer month, Integer day, Integer minuteOfDay) {
+    return year != null && month != null && day != null && minuteOfDay != null
+        && isValidDate(year, month, day) && minuteOfDay >= 0 && minuteOfDay < MINUTES_PER_DAY;
+  }
+
+  private static boolean isValidDate(int year, int month, int day) {
+    try {
+      LocalDate.of(year, month, day);
+      return true;
+    } catch (DateTimeException e) {
+      return false;
+    }
+  }
+
+  long endMinute() {
+    return epochMinute + durationMinutes;
+  }
+
+  long epochDay() {
+    return Math.floorDiv(epochMinute, MINUTES_PER_DAY);
+  }
+
+  int minuteOfDay() {
+    return Math.floorMod(epochMinute, MINUTES_PER_DAY);
+  }
+
+  LocalDate date() {
+    return LocalDate.ofEpochDay(epochDay());
+  }
+
+  int year() {
+    return date().getYear();
+  }
+
+  int month() {
+    return date().getMonthValue();
+  }
+
+  int day() {
+    return date().getDayOfMonth();
+  }
+
+  boolean overlaps(TimeSlot other) {
+    return epochMinute < other.endMinute() && other.epochMinute < endMinute();
+  }
+
+  Instant startTime() {
+    return Instant.ofEpochSecond(epochMinute * 60);
+  }
+
+  Duration duration() {
+    return Duration.ofMinutes(durationMinutes);
+  }
+
+  // The year/month/day/minuteOfDay path parameters of the slot's first minute.
+  String path() {
+    var date = date();
+    return "%d/%d/%d/%d".formatted(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), minuteOfDay());
+  }
+
+  // The parts of the slot that fall on each UTC day, in order.
+  List<TimeSlot> splitByDay() {
+    var slots = new ArrayList<TimeSlot>(2);
+    var end = endMinute();
+    for (var minute = epochMinute; minute < end;) {
+      var dayEnd = Math.min(end, (Math.floorDiv(minute, MINUTES_PER_DAY) + 1) * MINUTES_PER_DAY);
+      slots.add(new TimeSlot(minute, (int) (dayEnd - minute)));
+      minute = dayEnd;
+    }
+    return slots;
+  }
+}
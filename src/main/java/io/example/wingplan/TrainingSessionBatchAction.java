@@ -0,0 +1,54 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.spring.KalixClient;
+
+import java.util.HashSet;
+import java.util.List;
+
+import com.typesafe.config.ConfigFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RequestMapping("/trainingSessionBatch")
+public class TrainingSessionBatchAction extends Action {
+  private static final int PARALLELISM = ConfigFactory.load().getInt("wing-plan.batch-schedule.parallelism");
+  private final Logger log = LoggerFactory.getLogger(TrainingSessionBatchAction.class);
+  private final KalixClient kalixClient;
+
+  public TrainingSessionBatchAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  // Results are streamed back as soon as each command completes, so they are not in request order; the index
+  // identifies the command in the batch.
+  @PostMapping("/schedule")
+  public Flux<Effect<ItemResult>> schedule(@RequestBody ScheduleBatch batch) {
+    log.info("Batch size: {}", batch.commands().size());
+    var sessionIds = new HashSet<String>();
+    return Flux.fromIterable(batch.commands())
+        .index((index, command) -> new Item(index.intValue(), command, sessionIds.add(TrainingSessionBookingAction.reservationId(command))))
+        .flatMap(this::schedule, PARALLELISM)
+        .map(result -> effects().reply(result));
+  }
+
+  private Mono<ItemResult> schedule(Item item) {
+    if (!item.firstInBatch()) {
+      return Mono.just(new ItemResult(item.index(), "duplicate", "Repeated in batch"));
+    }
+    return Mono.fromCompletionStage(() -> kalixClient.put("/trainingSessionBooking/schedule", item.command(), TrainingSessionBookingAction.BookingResult.class).execute())
+        .map(result -> new ItemResult(item.index(), result.status(), result.reason()))
+        .onErrorResume(error -> Mono.just(new ItemResult(item.index(), "failed", TrainingSessionBookingAction.reasonFor(error))));
+  }
+
+  private record Item(int index, TrainingSessionEntity.ScheduleCommand command, boolean firstInBatch) {}
+
+  public record ScheduleBatch(List<TrainingSessionEntity.ScheduleCommand> commands) {}
+
+  public record ItemResult(int index, String status, String reason) {}
+}
@@ -0,0 +1,301 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.spring.KalixClient;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import com.typesafe.config.ConfigFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+@RequestMapping("/trainingSessionBooking")
+public class TrainingSessionBookingAction extends Action {
+  private static final Map<String, Integer> COURSE_PRIORITIES = coursePriorities(
+      ConfigFactory.load().getObject("wing-plan.waitlist.course-priorities").unwrapped());
+  private final Logger log = LoggerFactory.getLogger(TrainingSessionBookingAction.class);
+  private final KalixClient kalixClient;
+
+  public TrainingSessionBookingAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  @PutMapping("/schedule")
+  public Effect<BookingResult> schedule(@RequestBody TrainingSessionEntity.ScheduleCommand command) {
+    log.info("Command: {}", command);
+    var invalid = TrainingSessionEntity.State.rejectionFor(command);
+    if (invalid.isPresent()) {
+      return effects().reply(BookingResult.rejected(invalid.get()));
+    }
+    return effects().asyncReply(book(command).thenApply(Attempt::result));
+  }
+
+  // Like schedule, but a session that is rejected because one of its participants is already reserved at that
+  // time joins the waitlist of that participant's day. WaitlistAssignmentAction books it when the time is released.
+  // Waiting sessions are served in the priority of the student's course and then in the order the requests
+  // arrived here, so a client cannot move its own session ahead of others.
+  @PutMapping("/scheduleOrWait")
+  public Effect<BookingResult> scheduleOrWait(@RequestBody WaitlistCommand command) {
+    log.info("Command: {}", command);
+    var session = command.session();
+    var invalid = TrainingSessionEntity.State.rejectionFor(session);
+    if (invalid.isPresent()) {
+      return effects().reply(BookingResult.rejected(invalid.get()));
+    }
+    var requestTime = Instant.now();
+    return effects().asyncReply(
+        ReferenceDataCache.student(kalixClient, session.studentId())
+            .thenCompose(student -> scheduleOrWait(session, priorityFor(student.courseId()), requestTime)));
+  }
+
+  // Also books the waiting sessions that are offered released time, with the priority and request time they first
+  // joined a waitlist with.
+  CompletionStage<BookingResult> scheduleOrWait(TrainingSessionEntity.ScheduleCommand session, int priority, Instant requestTime) {
+    return book(session).thenCompose(attempt -> {
+      if (attempt.conflict() == null) {
+        return CompletableFuture.completedFuture(attempt.result());
+      }
+      var hold = attempt.conflict();
+      var join = new WaitlistEntity.JoinCommand(hold.resourceType(), hold.resourceId(), hold.year(), hold.month(), hold.day(),
+          reservationId(session), session, priority, requestTime, hold.startMinute(), hold.durationMinutes());
+      return kalixClient.put(WaitlistEntity.path(hold.resourceType(), hold.resourceId(), hold.year(), hold.month(), hold.day()) + "/join",
+              join, String.class)
+          .execute()
+          .thenApply(__ -> BookingResult.waitlisted(attempt.result().reason()));
+    });
+  }
+
+  static int priorityFor(String courseId) {
+    return courseId == null ? 0 : COURSE_PRIORITIES.getOrDefault(courseId, 0);
+  }
+
+  private CompletionStage<Attempt> book(TrainingSessionEntity.ScheduleCommand command) {
+    return kalixClient.get(sessionPath(command), TrainingSessionEntity.State.class)
+        .execute()
+        .thenCompose(session -> {
+          var rejection = session.rejectionReason();
+          if (rejection.isPresent()) {
+            return CompletableFuture.completedFuture(Attempt.of(BookingResult.rejected(rejection.get())));
+          }
+          if (!session.isEmpty()) {
+            return CompletableFuture.completedFuture(Attempt.of(BookingResult.duplicate()));
+          }
+          return participantRejection(command)
+              .thenCompose(participantRejection -> participantRejection.isPresent()
+                  ? CompletableFuture.completedFuture(Attempt.of(BookingResult.rejected(participantRejection.get())))
+                  : reserveAndSchedule(command));
+        });
+  }
+
+  // The session is cancelled before its calendar holds are released, so its slot only becomes free once the
+  // session can no longer be completed.
+  @PutMapping("/cancel")
+  public Effect<String> cancel(@RequestBody TrainingSessionEntity.CancelCommand command) {
+    log.info("Command: {}", command);
+    var path = sessionPath(command.studentId(), command.instructorId(), command.aircraftId(), command.startTime());
+    return effects().asyncReply(
+        kalixClient.get(path, TrainingSessionEntity.State.class)
+            .execute()
+            .thenCompose(session -> {
+              if (session.isEmpty()) {
+                return CompletableFuture.completedFuture("OK");
+              }
+              var reservationId = reservationId(command.studentId(), command.instructorId(), command.aircraftId(), command.startTime());
+              var holds = Hold.holdsFor(session.studentId(), session.instructorId(), session.aircraftId(), session.slot());
+              return kalixClient.put(path + "/cancel", command, String.class)
+                  .execute()
+                  .thenCompose(__ -> CompletableFuture.allOf(holds.stream()
+                      .map(hold -> kalixClient.put(hold.path("release"), hold.releaseCommand(reservationId), String.class)
+                          .execute()
+                          .toCompletableFuture())
+                      .toArray(CompletableFuture[]::new)))
+                  .thenApply(__ -> "OK");
+            }));
+  }
+
+  // Students, instructors and aircraft are read through the reference data cache, so a booking normally only
+  // pays the round trips for the session and the calendars.
+  private CompletionStage<Optional<String>> participantRejection(TrainingSessionEntity.ScheduleCommand command) {
+    var student = ReferenceDataCache.student(kalixClient, command.studentId()).toCompletableFuture();
+    var instructor = ReferenceDataCache.instructor(kalixClient, command.instructorId()).toCompletableFuture();
+    var aircraft = ReferenceDataCache.aircraft(kalixClient, command.aircraftId()).toCompletableFuture();
+    return CompletableFuture.allOf(student, instructor, aircraft)
+        .thenApply(__ -> {
+          if (student.join().isEmpty()) {
+            return Optional.of("Unknown student: " + command.studentId());
+          }
+          if (instructor.join().isEmpty()) {
+            return Optional.of("Unknown instructor: " + command.instructorId());
+          }
+          if (aircraft.join().isEmpty()) {
+            return Optional.of("Unknown aircraft: " + command.aircraftId());
+          }
+          return Optional.empty();
+        });
+  }
+
+  // The session is checked before any calendar is touched, so compensation only ever releases holds that were
+  // made for a session that does not exist yet. A reservation that conflicts with another one rejects the session,
+  // any other failure is passed on once every hold is released.
+  private CompletionStage<Attempt> reserveAndSchedule(TrainingSessionEntity.ScheduleCommand command) {
+    var holds = Hold.holdsFor(command);
+    var reservations = holds.stream()
+        .map(hold -> kalixClient.put(hold.path("reserve"), hold.reserveCommand(reservationId(command)), String.class)
+            .execute()
+            .toCompletableFuture()
+            .handle((reply, error) -> Optional.ofNullable(error)))
+        .toList();
+
+    return CompletableFuture.allOf(reservations.toArray(CompletableFuture[]::new))
+        .thenCompose(__ -> complete(command, holds, reservations));
+  }
+
+  private CompletionStage<Attempt> complete(TrainingSessionEntity.ScheduleCommand command, List<Hold> holds,
+      List<CompletableFuture<Optional<Throwable>>> reservations) {
+    for (var reservation : reservations) {
+      var error = reservation.join();
+      if (error.isPresent() && !DayCalendarEntity.isConflict(error.get())) {
+        return release(command, holds)
+            .thenApply(__ -> {
+              throw error.get() instanceof CompletionException e ? e : new CompletionException(error.get());
+            });
+      }
+    }
+    for (int i = 0; i < holds.size(); i++) {
+      var error = reservations.get(i).join();
+      if (error.isPresent()) {
+        var conflict = holds.get(i);
+        var reason = reasonFor(error.get());
+        log.info("Rejected: {}, reason: {}", command, reason);
+        return release(command, holds)
+            .thenApply(__ -> new Attempt(BookingResult.rejected(reason), conflict));
+      }
+    }
+
+    return kalixClient.put(sessionPath(command) + "/scheduleReserved", command, String.class)
+        .execute()
+        .thenApply(__ -> Attempt.of(BookingResult.scheduled()))
+        .exceptionallyCompose(error -> release(command, holds)
+            .thenApply(__ -> {
+              throw error instanceof CompletionException e ? e : new CompletionException(error);
+            }));
+  }
+
+  // Every hold is released, also those whose reserve call failed, as the reservation may still have been made.
+  // Releasing a reservation that does not exist is a no-op.
+  private CompletableFuture<Void> release(TrainingSessionEntity.ScheduleCommand command, List<Hold> holds) {
+    var releases = holds.stream()
+        .map(hold -> kalixClient.put(hold.path("release"), hold.releaseCommand(reservationId(command)), String.class)
+            .execute()
+            .toCompletableFuture()
+            .exceptionally(error -> {
+              log.warn("Failed to release {}: {}", hold, reasonFor(error));
+              return "OK";
+            }))
+        .toArray(CompletableFuture[]::new);
+    return CompletableFuture.allOf(releases);
+  }
+
+  static Map<String, Integer> coursePriorities(Map<String, Object> config) {
+    var priorities = new HashMap<String, Integer>();
+    config.forEach((courseId, priority) -> priorities.put(courseId, ((Number) priority).intValue()));
+    return priorities;
+  }
+
+  static String sessionPath(TrainingSessionEntity.ScheduleCommand command) {
+    return sessionPath(command.studentId(), command.instructorId(), command.aircraftId(), command.startTime());
+  }
+
+  static String sessionPath(String studentId, String instructorId, String aircraftId, Instant startTime) {
+    return "/trainingSession/%s/%s/%s/%s".formatted(studentId, instructorId, aircraftId, startTime);
+  }
+
+  static String reservationId(TrainingSessionEntity.ScheduleCommand command) {
+    return reservationId(command.studentId(), command.instructorId(), command.aircraftId(), command.startTime());
+  }
+
+  static String reservationId(String studentId, String instructorId, String aircraftId, Instant startTime) {
+    return "trainingSession/%s/%s/%s/%s".formatted(studentId, instructorId, aircraftId, startTime);
+  }
+
+  static String reasonFor(Throwable error) {
+    var cause = error instanceof CompletionException ? error.getCause() : error;
+    if (cause instanceof WebClientResponseException response) {
+      return response.getResponseBodyAsString();
+    }
+    return String.valueOf(cause.getMessage());
+  }
+
+  // One day calendar reservation for one participant of the session. Sessions that cross midnight (UTC) are
+  // split into one hold per calendar day.
+  record Hold(String resourceType, String resourceId, int year, int month, int day, int startMinute, int durationMinutes) {
+    static List<Hold> holdsFor(TrainingSessionEntity.ScheduleCommand command) {
+      return holdsFor(command.studentId(), command.instructorId(), command.aircraftId(), TimeSlot.of(command.startTime(), command.duration()));
+    }
+
+    static List<Hold> holdsFor(String studentId, String instructorId, String aircraftId, TimeSlot session) {
+      var holds = new ArrayList<Hold>();
+      for (var slot : session.splitByDay()) {
+        holds.add(Hold.of("student", studentId, slot));
+        holds.add(Hold.of("instructor", instructorId, slot));
+        holds.add(Hold.of("aircraft", aircraftId, slot));
+      }
+      return holds;
+    }
+
+    private static Hold of(String resourceType, String resourceId, TimeSlot slot) {
+      return new Hold(resourceType, resourceId, slot.year(), slot.month(), slot.day(), slot.minuteOfDay(), slot.durationMinutes());
+    }
+
+    String path(String action) {
+      return "/dayCalendar/%s/%s/%d/%d/%d/%s".formatted(resourceType, resourceId, year, month, day, action);
+    }
+
+    DayCalendarEntity.ReserveCommand reserveCommand(String reservationId) {
+      return new DayCalendarEntity.ReserveCommand(resourceType, resourceId, year, month, day, reservationId, startMinute, durationMinutes);
+    }
+
+    DayCalendarEntity.ReleaseCommand releaseCommand(String reservationId) {
+      return new DayCalendarEntity.ReleaseCommand(resourceType, resourceId, year, month, day, reservationId);
+    }
+  }
+
+  // The conflict is the first hold whose reservation was rejected, if any.
+  private record Attempt(BookingResult result, Hold conflict) {
+    static Attempt of(BookingResult result) {
+      return new Attempt(result, null);
+    }
+  }
+
+  // The priority and request time of a waiting session are set here, see scheduleOrWait.
+  public record WaitlistCommand(TrainingSessionEntity.ScheduleCommand session) {}
+
+  public record BookingResult(String status, String reason) {
+    static BookingResult scheduled() {
+      return new BookingResult("scheduled", null);
+    }
+
+    static BookingResult rejected(String reason) {
+      return new BookingResult("rejected", reason);
+    }
+
+    static BookingResult duplicate() {
+      return new BookingResult("duplicate", null);
+    }
+
+    static BookingResult waitlisted(String reason) {
+      return new BookingResult("waitlisted", reason);
+    }
+  }
+}
@@ -5,23 +5,26 @@ import kalix.javasdk.annotations.EntityType;
 import kalix.javasdk.annotations.EventHandler;
 import kalix.javasdk.eventsourcedentity.EventSourcedEntity;
 import kalix.javasdk.eventsourcedentity.EventSourcedEntityContext;
+import io.grpc.Status;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Optional;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.*;
 
 @EntityKey({ "studentId", "instructorId", "aircraftId", "startTime" })
 @EntityType("trainingSession")
 @RequestMapping("/trainingSession/{studentId}/{instructorId}/{aircraftId}/{startTime}")
 public class TrainingSessionEntity extends EventSourcedEntity<TrainingSessionEntity.State, TrainingSessionEntity.Event> {
-  private final Logger log = LoggerFactory.getLogger(TrainingSessionEntity.class);
   private final String entityId;
+  private final EntityLogger log;
 
   public TrainingSessionEntity(EventSourcedEntityContext context) {
     this.entityId = context.entityId();
+    this.log = EntityLogger.of(TrainingSessionEntity.class, "trainingSession", entityId);
   }
 
   @Override
@@ -29,12 +32,23 @@ public class TrainingSessionEntity extends EventSourcedEntity<TrainingSessionEnt
     return State.emptyState();
   }
 
-  @PutMapping("/schedule")
+  // Called by trainingSessionBooking once the participants' day calendars are reserved. Clients schedule on the
+  // /schedule path of the session, which TrainingSessionScheduleAction serves by booking the session.
+  @PutMapping("/scheduleReserved")
   public Effect<String> schedule(@RequestBody ScheduleCommand command) {
-    log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
+    log.command("schedule", command, this::currentState);
     if (!currentState().isEmpty()) {
       return effects().reply("OK");
     }
+    var invalid = State.rejectionFor(command);
+    if (invalid.isPresent()) {
+      return effects().error(invalid.get(), Status.Code.INVALID_ARGUMENT);
+    }
+    var rejection = currentState().rejectionReason();
+    if (rejection.isPresent()) {
+      Metrics.increment("trainingSession.schedule.rejected");
+      return effects().error(rejection.get(), Status.Code.FAILED_PRECONDITION);
+    }
     return effects()
         .emitEvent(currentState().eventFor(command))
         .thenReply(__ -> "OK");
@@ -42,10 +56,15 @@ public class TrainingSessionEntity extends EventSourcedEntity<TrainingSessionEnt
 
   @PutMapping("/complete")
   public Effect<String> complete(@RequestBody CompleteCommand command) {
-    log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
+    log.command("complete", command, this::currentState);
     if (currentState().completedTime != null) {
       return effects().reply("OK");
     }
+    var rejection = currentState().rejectionReason();
+    if (rejection.isPresent()) {
+      Metrics.increment("trainingSession.complete.rejected");
+      return effects().error(rejection.get(), Status.Code.FAILED_PRECONDITION);
+    }
     return effects()
         .emitEvent(currentState().eventFor(command))
         .thenReply(__ -> "OK");
@@ -53,7 +72,7 @@ public class TrainingSessionEntity extends EventSourcedEntity<TrainingSessionEnt
 
   @PutMapping("/cancel")
   public Effect<String> cancel(@RequestBody CancelCommand command) {
-    log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
+    log.command("cancel", command, this::currentState);
     if (currentState().cancelledTime != null) {
       return effects().reply("OK");
     }
@@ -64,28 +83,41 @@ public class TrainingSessionEntity extends EventSourcedEntity<TrainingSessionEnt
 
   @GetMapping
   public Effect<State> getTrainingSession() {
-    log.info("EntityId: {}\n_State: {}", entityId, currentState());
+    log.query("getTrainingSession", this::currentState);
     return effects().reply(currentState());
   }
 
   @EventHandler
-  public State on(ScheduledEvent event) {
-    log.info("EntityId: {}\n_State: {}\n_Event: {}", entityId, currentState(), event);
+  public State on(ScheduledEventV2 event) {
     return currentState().on(event);
   }
 
   @EventHandler
-  public State on(CompletedEvent event) {
-    log.info("EntityId: {}\n_State: {}\n_Event: {}", entityId, currentState(), event);
+  public State on(CompletedEventV2 event) {
     return currentState().on(event);
   }
 
   @EventHandler
-  public State on(CancelledEvent event) {
-    log.info("EntityId: {}\n_State: {}\n_Event: {}", entityId, currentState(), event);
+  public State on(CancelledEventV2 event) {
     return currentState().on(event);
   }
 
+  // Version 1 events are no longer emitted, these handlers upcast the ones that are already in the journal.
+  @EventHandler
+  public State on(ScheduledEvent event) {
+    return currentState().on(event.upcast());
+  }
+
+  @EventHandler
+  public State on(CompletedEvent event) {
+    return currentState().on(event.upcast());
+  }
+
+  @EventHandler
+  public State on(CancelledEvent event) {
+    return currentState().on(event.upcast());
+  }
+
   public record State(
       String studentId,
       String instructorId,
@@ -102,35 +134,47 @@ public class TrainingSessionEntity extends EventSourcedEntity<TrainingSessionEnt
       return studentId == null || studentId.isEmpty();
     }
 
-    Event eventFor(ScheduleCommand command) {
+    Optional<String> rejectionReason() {
       if (completedTime != null) {
-        return new ScheduleRejectedEvent(command.studentId(), command.instructorId(), command.aircraftId(), command.startTime(), command.duration(),
-            "Training session already completed");
+        return Optional.of("Training session already completed");
       }
       if (cancelledTime != null) {
-        return new ScheduleRejectedEvent(command.studentId(), command.instructorId(), command.aircraftId(), command.startTime(), command.duration(),
-            "Training session has been cancelled");
+        return Optional.of("Training session has been cancelled");
       }
-      return new ScheduledEvent(command.studentId(), command.instructorId(), command.aircraftId(), command.startTime(), command.duration());
+      return Optional.empty();
     }
 
-    Event eventFor(CompleteCommand command) {
-      if (completedTime != null) {
-        return new CompleteRejectedEvent(command.studentId(), command.instructorId(), command.aircraftId(), command.completedTime(), command.startTime(),
-            "Training session already completed");
+    static Optional<String> rejectionFor(ScheduleCommand command) {
+      if (command.startTime() == null || command.duration() == null || command.duration().isNegative() || command.duration().isZero()) {
+        return Optional.of("Start time and a positive duration are required");
       }
-      if (cancelledTime != null) {
-        return new CompleteRejectedEvent(command.studentId(), command.instructorId(), command.aircraftId(), command.startTime(), command.completedTime(),
-            "Training session has been cancelled");
+      var min = TrainingSessionsView.Row.SORT_KEY_MIN;
+      var max = TrainingSessionsView.Row.SORT_KEY_MAX;
+      if (command.startTime().isBefore(min) || !command.startTime().isBefore(max)) {
+        return Optional.of("Start time must be from %s until before %s".formatted(min, max));
       }
-      return new CompletedEvent(command.studentId(), command.instructorId(), command.aircraftId(), command.startTime(), command.completedTime());
+      return Optional.empty();
+    }
+
+    // The whole minutes the session touches, as reserved in the day calendars.
+    TimeSlot slot() {
+      return TimeSlot.of(startTime, duration);
+    }
+
+    Event eventFor(ScheduleCommand command) {
+      return ScheduledEventV2.of(command.studentId(), command.instructorId(), command.aircraftId(), command.startTime(), command.duration());
+    }
+
+    Event eventFor(CompleteCommand command) {
+      return CompletedEventV2.of(command.studentId(), command.instructorId(), command.aircraftId(), command.startTime(), command.completedTime());
     }
 
     Event eventFor(CancelCommand command) {
-      return new CancelledEvent(command.studentId(), command.instructorId(), command.aircraftId(), command.startTime(), command.cancelTime(), command.reason());
+      return CancelledEventV2.of(command.studentId(), command.instructorId(), command.aircraftId(), command.startTime(), command.cancelTime(),
+          command.reason());
     }
 
-    State on(ScheduledEvent event) {
+    State on(ScheduledEventV2 event) {
       if (isEmpty()) {
         return new State(event.studentId(), event.instructorId(), event.aircraftId(), event.startTime(), event.duration(), null, null);
       } else {
@@ -138,15 +182,11 @@ public class TrainingSessionEntity extends EventSourcedEntity<TrainingSessionEnt
       }
     }
 
-    State on(ScheduleRejectedEvent event) {
-      return this;
-    }
-
-    State on(CancelledEvent event) {
+    State on(CancelledEventV2 event) {
       return new State(studentId, instructorId, aircraftId, startTime, duration, completedTime, event.cancelledTime());
     }
 
-    State on(CompletedEvent event) {
+    State on(CompletedEventV2 event) {
       return new State(studentId, instructorId, aircraftId, startTime, duration, event.completedTime(), cancelledTime);
     }
   }
@@ -155,17 +195,96 @@ public class TrainingSessionEntity extends EventSourcedEntity<TrainingSessionEnt
 
   public record ScheduleCommand(String studentId, String instructorId, String aircraftId, Instant startTime, Duration duration) {}
 
-  public record ScheduledEvent(String studentId, String instructorId, String aircraftId, Instant startTime, Duration duration) implements Event {}
-
-  public record ScheduleRejectedEvent(String studentId, String instructorId, String aircraftId, Instant startTime, Duration duration, String reason) implements Event {}
 
   public record CancelCommand(String studentId, String instructorId, String aircraftId, Instant startTime, Instant cancelTime, String reason) {}
 
-  public record CancelledEvent(String studentId, String instructorId, String aircraftId, Instant startTime, Instant cancelledTime, String reason) implements Event {}
 
   public record CompleteCommand(String studentId, String instructorId, String aircraftId, Instant startTime, Instant completedTime) {}
 
-  public record CompletedEvent(String studentId, String instructorId, String aircraftId, Instant startTime, Instant completedTime) implements Event {}
+  // Version 2 events hold the times as UTC epoch seconds and nanoseconds, which are read without parsing text and
+  // keep the full precision of the start time that the entity key and the calendar reservation ids are built from.
+  // Nanoseconds are left out of the JSON when they are zero. The participant ids stay in the events because
+  // subscribers receive the events without the entity key. Completion and cancellation times are null when the
+  // command had none, as in version 1, where the schedule times were not validated yet either.
+  public record ScheduledEventV2(String studentId, String instructorId, String aircraftId, Long startEpochSecond,
+      @JsonInclude(JsonInclude.Include.NON_DEFAULT) int startNano, Long durationSeconds,
+      @JsonInclude(JsonInclude.Include.NON_DEFAULT) int durationNano) implements Event {
+    static ScheduledEventV2 of(String studentId, String instructorId, String aircraftId, Instant startTime, Duration duration) {
+      return new ScheduledEventV2(studentId, instructorId, aircraftId, epochSecond(startTime), nano(startTime),
+          duration == null ? null : duration.getSeconds(), duration == null ? 0 : duration.getNano());
+    }
+
+    Instant startTime() {
+      return instant(startEpochSecond, startNano);
+    }
+
+    Duration duration() {
+      return durationSeconds == null ? null : Duration.ofSeconds(durationSeconds, durationNano);
+    }
+  }
+
+  public record CancelledEventV2(String studentId, String instructorId, String aircraftId, Long startEpochSecond,
+      @JsonInclude(JsonInclude.Include.NON_DEFAULT) int startNano, Long cancelledEpochSecond,
+      @JsonInclude(JsonInclude.Include.NON_DEFAULT) int cancelledNano, String reason) implements Event {
+    static CancelledEventV2 of(String studentId, String instructorId, String aircraftId, Instant startTime, Instant cancelledTime, String reason) {
+      return new CancelledEventV2(studentId, instructorId, aircraftId, epochSecond(startTime), nano(startTime), epochSecond(cancelledTime),
+          nano(cancelledTime), reason);
+    }
+
+    Instant startTime() {
+      return instant(startEpochSecond, startNano);
+    }
+
+    Instant cancelledTime() {
+      return instant(cancelledEpochSecond, cancelledNano);
+    }
+  }
+
+  public record CompletedEventV2(String studentId, String instructorId, String aircraftId, Long startEpochSecond,
+      @JsonInclude(JsonInclude.Include.NON_DEFAULT) int startNano, Long completedEpochSecond,
+      @JsonInclude(JsonInclude.Include.NON_DEFAULT) int completedNano) implements Event {
+    static CompletedEventV2 of(String studentId, String instructorId, String aircraftId, Instant startTime, Instant completedTime) {
+      return new CompletedEventV2(studentId, instructorId, aircraftId, epochSecond(startTime), nano(startTime), epochSecond(completedTime),
+          nano(completedTime));
+    }
+
+    Instant startTime() {
+      return instant(startEpochSecond, startNano);
+    }
 
-  public record CompleteRejectedEvent(String studentId, String instructorId, String aircraftId, Instant startTime, Instant completedTime, String reason) implements Event {}
+    Instant completedTime() {
+      return instant(completedEpochSecond, completedNano);
+    }
+  }
+
+  private static Long epochSecond(Instant time) {
+    return time == null ? null : time.getEpochSecond();
+  }
+
+  private static int nano(Instant time) {
+    return time == null ? 0 : time.getNano();
+  }
+
+  private static Instant instant(Long epochSecond, int nano) {
+    return epochSecond == null ? null : Instant.ofEpochSecond(epochSecond, nano);
+  }
+
+  // Version 1 events, still in older journals.
+  public record ScheduledEvent(String studentId, String instructorId, String aircraftId, Instant startTime, Duration duration) implements Event {
+    ScheduledEventV2 upcast() {
+      return ScheduledEventV2.of(studentId, instructorId, aircraftId, startTime, duration);
+    }
+  }
+
+  public record CancelledEvent(String studentId, String instructorId, String aircraftId, Instant startTime, Instant cancelledTime, String reason) implements Event {
+    CancelledEventV2 upcast() {
+      return CancelledEventV2.of(studentId, instructorId, aircraftId, startTime, cancelledTime, reason);
+    }
+  }
+
+  public record CompletedEvent(String studentId, String instructorId, String aircraftId, Instant startTime, Instant completedTime) implements Event {
+    CompletedEventV2 upcast() {
+      return CompletedEventV2.of(studentId, instructorId, aircraftId, startTime, completedTime);
+    }
+  }
 }
@@ -0,0 +1,118 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.spring.KalixClient;
+import io.grpc.Status;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.typesafe.config.ConfigFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+// Lists one participant's training sessions in start time order, a page at a time. Each page ends with a cursor
+// for the next one, so a client walks a long history with one indexed query per page instead of an offset that
+// gets slower as it grows.
+@RequestMapping("/trainingSessionListing")
+public class TrainingSessionListingAction extends Action {
+  private static final int DEFAULT_PAGE_SIZE = ConfigFactory.load().getInt("wing-plan.session-listing.page-size");
+  private static final int MAX_PAGE_SIZE = ConfigFactory.load().getInt("wing-plan.session-listing.max-page-size");
+  private static final List<String> statuses = List.of("scheduled", "completed", "cancelled");
+  private static final Map<String, String> paths = Map.of(
+      "student", "/trainingSessions/byStudent/",
+      "instructor", "/trainingSessions/byInstructor/",
+      "aircraft", "/trainingSessions/byAircraft/");
+  private final Logger log = LoggerFactory.getLogger(TrainingSessionListingAction.class);
+  private final KalixClient kalixClient;
+
+  public TrainingSessionListingAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  // from and to are ISO-8601 instants, status is a comma separated list. All are optional.
+  @GetMapping("/{participantType}/{participantId}")
+  public Effect<Page> list(
+      @PathVariable String participantType,
+      @PathVariable String participantId,
+      @RequestParam(required = false) String from,
+      @RequestParam(required = false) String to,
+      @RequestParam(required = false) String status,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer pageSize) {
+    var query = PageQuery.of(participantType, participantId, from, to, status, cursor, pageSize);
+    log.info("Query: {}", query);
+    var rejection = query.rejection();
+    if (rejection != null) {
+      return effects().error(rejection, Status.Code.INVALID_ARGUMENT);
+    }
+    return effects().asyncReply(
+        kalixClient.get(query.viewPath(), TrainingSessionsView.Rows.class)
+            .execute()
+            .thenApply(rows -> Page.of(rows.rows(), query.pageSize())));
+  }
+
+  record PageQuery(String participantType, String participantId, Long fromMinute, Long toMinute, List<String> statuses, String after,
+      int pageSize, String rejection) {
+    static PageQuery of(String participantType, String participantId, String from, String to, String status, String cursor, Integer pageSize) {
+      try {
+        var fromMinute = from == null || from.isEmpty() ? Long.MIN_VALUE : TimeSlot.epochMinute(Instant.parse(from));
+        var toMinute = to == null || to.isEmpty() ? Long.MAX_VALUE : TimeSlot.epochMinute(Instant.parse(to));
+        var selected = status == null || status.isEmpty()
+            ? TrainingSessionListingAction.statuses
+            : Arrays.stream(status.split(",")).map(String::trim).filter(s -> !s.isEmpty()).distinct().toList();
+        var size = pageSize == null ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+        var rejection = !paths.containsKey(participantType) ? "Participant type must be student, instructor or aircraft"
+            : !TrainingSessionListingAction.statuses.containsAll(selected) ? "Status must be scheduled, completed or cancelled"
+            : size <= 0 ? "Page size must be positive"
+            : null;
+        return new PageQuery(participantType, participantId, fromMinute, toMinute, selected, decodeCursor(cursor), size, rejection);
+      } catch (IllegalArgumentException | DateTimeParseException e) {
+        return new PageQuery(participantType, participantId, null, null, List.of(), "", 0, "Invalid time range or cursor");
+      }
+    }
+
+    // One row more than the page size tells whether there is a next page.
+    String viewPath() {
+      var statusParams = statuses.stream().map(s -> "&statuses=" + s).collect(Collectors.joining());
+      return "%s%s?after=%s&fromMinute=%d&toMinute=%d%s&limit=%d".formatted(paths.get(participantType), encodePathSegment(participantId),
+          encodeParam(after), fromMinute, toMinute, statusParams, pageSize + 1);
+    }
+
+    static String encodeParam(String value) {
+      return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    // Form encoding turns spaces into '+', which a path keeps as is.
+    static String encodePathSegment(String value) {
+      return encodeParam(value).replace("+", "%20");
+    }
+  }
+
+  public record Page(List<TrainingSessionsView.Row> sessions, String nextCursor) {
+    static Page of(List<TrainingSessionsView.Row> rows, int pageSize) {
+      if (rows.size() <= pageSize) {
+        return new Page(rows, null);
+      }
+      var page = rows.subList(0, pageSize);
+      return new Page(page, encodeCursor(page.get(page.size() - 1).sortKey()));
+    }
+  }
+
+  static String encodeCursor(String sortKey) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(sortKey.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static String decodeCursor(String cursor) {
+    return cursor == null || cursor.isEmpty() ? "" : new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,55 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.spring.KalixClient;
+import io.grpc.Status;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+// Serves the schedule endpoint of the training session path for the clients that schedule sessions directly. The
+// session is booked through trainingSessionBooking, which reserves the participants' day calendars before the
+// session is scheduled, so an overlapping session is rejected with FAILED_PRECONDITION instead of being accepted.
+@RequestMapping("/trainingSession/{studentId}/{instructorId}/{aircraftId}/{startTime}")
+public class TrainingSessionScheduleAction extends Action {
+  private final Logger log = LoggerFactory.getLogger(TrainingSessionScheduleAction.class);
+  private final KalixClient kalixClient;
+
+  public TrainingSessionScheduleAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  // A session that is already scheduled replies OK, as the entity does.
+  @PutMapping("/schedule")
+  public Effect<String> schedule(@PathVariable String studentId, @PathVariable String instructorId, @PathVariable String aircraftId,
+      @PathVariable String startTime, @RequestBody TrainingSessionEntity.ScheduleCommand command) {
+    log.info("Command: {}", command);
+    var invalid = TrainingSessionEntity.State.rejectionFor(command);
+    if (invalid.isPresent()) {
+      return effects().error(invalid.get(), Status.Code.INVALID_ARGUMENT);
+    }
+    if (!isSameSession(studentId, instructorId, aircraftId, startTime, command)) {
+      return effects().error("The path and the command must name the same training session", Status.Code.INVALID_ARGUMENT);
+    }
+    return effects().asyncEffect(
+        kalixClient.put("/trainingSessionBooking/schedule", command, TrainingSessionBookingAction.BookingResult.class)
+            .execute()
+            .thenApply(result -> "rejected".equals(result.status())
+                ? effects().error(result.reason(), Status.Code.FAILED_PRECONDITION)
+                : effects().reply("OK")));
+  }
+
+  static boolean isSameSession(String studentId, String instructorId, String aircraftId, String startTime,
+      TrainingSessionEntity.ScheduleCommand command) {
+    try {
+      return studentId.equals(command.studentId()) && instructorId.equals(command.instructorId()) && aircraftId.equals(command.aircraftId())
+          && Instant.parse(startTime).equals(command.startTime());
+    } catch (DateTimeParseException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.javasdk.annotations.Subscribe;
+import kalix.spring.KalixClient;
+
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// A completed session is flown from its start time to its completion time. Cancelling a completed session removes
+// its flight again, with the completion time read from the session for a flight the aircraft no longer remembers.
+@Subscribe.EventSourcedEntity(value = TrainingSessionEntity.class)
+public class TrainingSessionToAircraftUtilizationAction extends Action {
+  private final Logger log = LoggerFactory.getLogger(TrainingSessionToAircraftUtilizationAction.class);
+  private final KalixClient kalixClient;
+
+  public TrainingSessionToAircraftUtilizationAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  public Effect<String> on(TrainingSessionEntity.CompletedEventV2 event) {
+    log.info("Event: {}", event);
+    var command = new AircraftUtilizationEntity.RecordFlightCommand(event.aircraftId(), sessionId(event.studentId(), event.instructorId(),
+        event.aircraftId(), event.startTime()), event.startTime(), event.completedTime());
+    return effects().forward(kalixClient.put(path(event.aircraftId()) + "/recordFlight", command, String.class));
+  }
+
+  public Effect<String> on(TrainingSessionEntity.CancelledEventV2 event) {
+    log.info("Event: {}", event);
+    var sessionPath = TrainingSessionBookingAction.sessionPath(event.studentId(), event.instructorId(), event.aircraftId(), event.startTime());
+    return effects().asyncReply(
+        kalixClient.get(sessionPath, TrainingSessionEntity.State.class)
+            .execute()
+            .thenCompose(session -> {
+              var command = new AircraftUtilizationEntity.RemoveFlightCommand(event.aircraftId(), sessionId(event.studentId(), event.instructorId(),
+                  event.aircraftId(), event.startTime()), event.startTime(), session.completedTime());
+              return kalixClient.put(path(event.aircraftId()) + "/removeFlight", command, String.class).execute();
+            }));
+  }
+
+  public Effect<String> on(TrainingSessionEntity.ScheduledEventV2 event) {
+    return effects().ignore();
+  }
+
+  public Effect<String> on(TrainingSessionEntity.CompletedEvent event) {
+    return on(event.upcast());
+  }
+
+  public Effect<String> on(TrainingSessionEntity.CancelledEvent event) {
+    return on(event.upcast());
+  }
+
+  public Effect<String> on(TrainingSessionEntity.ScheduledEvent event) {
+    return effects().ignore();
+  }
+
+  private static String path(String aircraftId) {
+    return "/aircraftUtilization/" + aircraftId;
+  }
+
+  private static String sessionId(String studentId, String instructorId, String aircraftId, Instant startTime) {
+    return TrainingSessionBookingAction.reservationId(studentId, instructorId, aircraftId, startTime);
+  }
+}
@@ -0,0 +1,115 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.javasdk.annotations.Subscribe;
+import kalix.spring.KalixClient;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Reconciles the day calendars with training sessions in journals from before the day calendars existed. Sessions
+// are scheduled through trainingSessionBooking, which has already reserved them, so for them the reservations are
+// no-ops. An older session that overlaps another reservation of one of its participants is cancelled, which
+// releases the calendar time it did get.
+@Subscribe.EventSourcedEntity(value = TrainingSessionEntity.class)
+public class TrainingSessionToDayCalendarAction extends Action {
+  static final String OVERLAP_REASON = "Overlaps another reservation of a participant";
+  private final Logger log = LoggerFactory.getLogger(TrainingSessionToDayCalendarAction.class);
+  private final KalixClient kalixClient;
+
+  public TrainingSessionToDayCalendarAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  // Sessions that have already started are left as they are, they were booked before the day calendars existed
+  // or their overlap no longer matters.
+  public Effect<String> on(TrainingSessionEntity.ScheduledEventV2 event) {
+    if (event.startTime().isBefore(Instant.now())) {
+      return effects().ignore();
+    }
+    log.info("Event: {}", event);
+    var slot = TimeSlot.of(event.startTime(), event.duration());
+    var reservationId = TrainingSessionBookingAction.reservationId(event.studentId(), event.instructorId(), event.aircraftId(), event.startTime());
+    var reservations = TrainingSessionBookingAction.Hold.holdsFor(event.studentId(), event.instructorId(), event.aircraftId(), slot).stream()
+        .map(hold -> kalixClient.put(hold.path("reserve"), hold.reserveCommand(reservationId), String.class)
+            .execute()
+            .toCompletableFuture()
+            .handle((reply, error) -> overlap(error)))
+        .toList();
+    return effects().asyncReply(
+        CompletableFuture.allOf(reservations.toArray(CompletableFuture[]::new))
+            .thenCompose(__ -> {
+              var overlap = reservations.stream().map(CompletableFuture::join).flatMap(Optional::stream).findFirst();
+              if (overlap.isEmpty()) {
+                return CompletableFuture.completedFuture("OK");
+              }
+              log.warn("Overlapping session: {}, reason: {}", event, overlap.get());
+              Metrics.increment("trainingSession.overlap.cancelled");
+              return cancel(event);
+            }));
+  }
+
+  // Sessions cancelled on the entity directly release their calendar time here, releases are no-ops for the ones
+  // that trainingSessionBooking has already released.
+  public Effect<String> on(TrainingSessionEntity.CancelledEventV2 event) {
+    log.info("Event: {}", event);
+    var path = TrainingSessionBookingAction.sessionPath(event.studentId(), event.instructorId(), event.aircraftId(), event.startTime());
+    return effects().asyncReply(
+        kalixClient.get(path, TrainingSessionEntity.State.class)
+            .execute()
+            .thenCompose(session -> session.isEmpty()
+                ? CompletableFuture.completedFuture("OK")
+                : release(TrainingSessionBookingAction.Hold.holdsFor(session.studentId(), session.instructorId(), session.aircraftId(), session.slot()),
+                    TrainingSessionBookingAction.reservationId(event.studentId(), event.instructorId(), event.aircraftId(), event.startTime()))));
+  }
+
+  public Effect<String> on(TrainingSessionEntity.CompletedEventV2 event) {
+    return effects().ignore();
+  }
+
+  public Effect<String> on(TrainingSessionEntity.ScheduledEvent event) {
+    return on(event.upcast());
+  }
+
+  public Effect<String> on(TrainingSessionEntity.CancelledEvent event) {
+    return on(event.upcast());
+  }
+
+  public Effect<String> on(TrainingSessionEntity.CompletedEvent event) {
+    return effects().ignore();
+  }
+
+  private CompletionStage<String> cancel(TrainingSessionEntity.ScheduledEventV2 event) {
+    var command = new TrainingSessionEntity.CancelCommand(event.studentId(), event.instructorId(), event.aircraftId(), event.startTime(),
+        Instant.now(), OVERLAP_REASON);
+    return kalixClient.put("/trainingSessionBooking/cancel", command, String.class).execute();
+  }
+
+  private CompletionStage<String> release(List<TrainingSessionBookingAction.Hold> holds, String reservationId) {
+    return CompletableFuture.allOf(holds.stream()
+            .map(hold -> kalixClient.put(hold.path("release"), hold.releaseCommand(reservationId), String.class)
+                .execute()
+                .toCompletableFuture())
+            .toArray(CompletableFuture[]::new))
+        .thenApply(__ -> "OK");
+  }
+
+  // A reservation rejected because the time is taken is an overlap. Anything else is rethrown so that the event is
+  // redelivered.
+  private static Optional<String> overlap(Throwable error) {
+    if (error == null) {
+      return Optional.empty();
+    }
+    if (DayCalendarEntity.isConflict(error)) {
+      return Optional.of(TrainingSessionBookingAction.reasonFor(error));
+    }
+    throw error instanceof CompletionException e ? e : new CompletionException(error);
+  }
+}
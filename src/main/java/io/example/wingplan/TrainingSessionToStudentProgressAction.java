@@ -0,0 +1,64 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.javasdk.annotations.Subscribe;
+import kalix.spring.KalixClient;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Joins the completed and cancelled sessions with the student's course, read through the reference data cache.
+// Cancelled sessions also carry their completion time, read from the session.
+@Subscribe.EventSourcedEntity(value = TrainingSessionEntity.class)
+public class TrainingSessionToStudentProgressAction extends Action {
+  private final Logger log = LoggerFactory.getLogger(TrainingSessionToStudentProgressAction.class);
+  private final KalixClient kalixClient;
+
+  public TrainingSessionToStudentProgressAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  public Effect<String> on(TrainingSessionEntity.CompletedEventV2 event) {
+    log.info("Event: {}", event);
+    var sessionId = TrainingSessionBookingAction.reservationId(event.studentId(), event.instructorId(), event.aircraftId(), event.startTime());
+    return effects().asyncReply(
+        ReferenceDataCache.student(kalixClient, event.studentId())
+            .thenCompose(student -> kalixClient.put(path(event.studentId()) + "/completed",
+                    new StudentProgressEntity.SessionCompletedCommand(event.studentId(), student.courseId(), sessionId, event.startTime(),
+                        event.completedTime()),
+                    String.class)
+                .execute()));
+  }
+
+  public Effect<String> on(TrainingSessionEntity.CancelledEventV2 event) {
+    log.info("Event: {}", event);
+    var sessionId = TrainingSessionBookingAction.reservationId(event.studentId(), event.instructorId(), event.aircraftId(), event.startTime());
+    var sessionPath = TrainingSessionBookingAction.sessionPath(event.studentId(), event.instructorId(), event.aircraftId(), event.startTime());
+    var session = kalixClient.get(sessionPath, TrainingSessionEntity.State.class).execute().toCompletableFuture();
+    return effects().asyncReply(
+        ReferenceDataCache.student(kalixClient, event.studentId())
+            .thenCombine(session, (student, state) ->
+                new StudentProgressEntity.SessionCancelledCommand(event.studentId(), student.courseId(), sessionId, event.startTime(), state.completedTime()))
+            .thenCompose(command -> kalixClient.put(path(event.studentId()) + "/cancelled", command, String.class).execute()));
+  }
+
+  public Effect<String> on(TrainingSessionEntity.ScheduledEventV2 event) {
+    return effects().ignore();
+  }
+
+  public Effect<String> on(TrainingSessionEntity.CompletedEvent event) {
+    return on(event.upcast());
+  }
+
+  public Effect<String> on(TrainingSessionEntity.CancelledEvent event) {
+    return on(event.upcast());
+  }
+
+  public Effect<String> on(TrainingSessionEntity.ScheduledEvent event) {
+    return effects().ignore();
+  }
+
+  private static String path(String studentId) {
+    return "/studentProgress/" + studentId;
+  }
+}
@@ -0,0 +1,153 @@
+package io.example.wingplan;
+
+import kalix.javasdk.annotations.Query;
+import kalix.javasdk.annotations.Subscribe;
+import kalix.javasdk.annotations.Table;
+import kalix.javasdk.annotations.ViewId;
+import kalix.javasdk.view.View;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import reactor.core.publisher.Flux;
+
+// The feed queries stream the current row of every matching session and then each row again as it changes.
+// ScheduleFeedAction serves them to screens with the updates of each row conflated.
+// The view id is bumped whenever a column is added or its values change, so the rows are rebuilt from the journals.
+@ViewId("training_sessions_v4")
+@Table("training_sessions")
+@Subscribe.EventSourcedEntity(value = TrainingSessionEntity.class)
+public class TrainingSessionsView extends View<TrainingSessionsView.Row> {
+  private final Logger log = LoggerFactory.getLogger(TrainingSessionsView.class);
+
+  @GetMapping("/trainingSessions/{year}/{month}/{day}/feed")
+  @Query(value = """
+      SELECT * FROM training_sessions
+        WHERE year = :year AND month = :month AND day = :day
+      """, streamUpdates = true)
+  public Flux<Row> streamDay(@PathVariable Integer year, @PathVariable Integer month, @PathVariable Integer day) {
+    return null;
+  }
+
+  @GetMapping("/trainingSessions/{year}/{month}/{day}/{resourceId}/feed")
+  @Query(value = """
+      SELECT * FROM training_sessions
+        WHERE year = :year AND month = :month AND day = :day
+          AND (studentId = :resourceId OR instructorId = :resourceId OR aircraftId = :resourceId)
+      """, streamUpdates = true)
+  public Flux<Row> streamResourceDay(@PathVariable Integer year, @PathVariable Integer month, @PathVariable Integer day,
+      @PathVariable String resourceId) {
+    return null;
+  }
+
+  // The page queries are keyset paginated on sortKey, which orders by start time and is unique per session.
+  // TrainingSessionListingAction wraps them with cursors and defaults.
+  @GetMapping("/trainingSessions/byStudent/{participantId}")
+  @Query("""
+      SELECT * AS rows FROM training_sessions
+        WHERE studentId = :participantId AND sortKey > :after
+          AND startEpochMinute >= :fromMinute AND startEpochMinute < :toMinute AND status = ANY(:statuses)
+        ORDER BY sortKey
+        LIMIT :limit
+      """)
+  public Rows getStudentPage(@PathVariable String participantId, @RequestParam String after, @RequestParam Long fromMinute,
+      @RequestParam Long toMinute, @RequestParam List<String> statuses, @RequestParam Integer limit) {
+    return null;
+  }
+
+  @GetMapping("/trainingSessions/byInstructor/{participantId}")
+  @Query("""
+      SELECT * AS rows FROM training_sessions
+        WHERE instructorId = :participantId AND sortKey > :after
+          AND startEpochMinute >= :fromMinute AND startEpochMinute < :toMinute AND status = ANY(:statuses)
+        ORDER BY sortKey
+        LIMIT :limit
+      """)
+  public Rows getInstructorPage(@PathVariable String participantId, @RequestParam String after, @RequestParam Long fromMinute,
+      @RequestParam Long toMinute, @RequestParam List<String> statuses, @RequestParam Integer limit) {
+    return null;
+  }
+
+  @GetMapping("/trainingSessions/byAircraft/{participantId}")
+  @Query("""
+      SELECT * AS rows FROM training_sessions
+        WHERE aircraftId = :participantId AND sortKey > :after
+          AND startEpochMinute >= :fromMinute AND startEpochMinute < :toMinute AND status = ANY(:statuses)
+        ORDER BY sortKey
+        LIMIT :limit
+      """)
+  public Rows getAircraftPage(@PathVariable String participantId, @RequestParam String after, @RequestParam Long fromMinute,
+      @RequestParam Long toMinute, @RequestParam List<String> statuses, @RequestParam Integer limit) {
+    return null;
+  }
+
+  public UpdateEffect<Row> on(TrainingSessionEntity.ScheduledEventV2 event) {
+    log.info("Row: {}\n_Event: {}", viewState(), event);
+    return effects().updateState(Row.of(event));
+  }
+
+  // A session can be completed or cancelled without ever having been scheduled, it has no row to update then.
+  public UpdateEffect<Row> on(TrainingSessionEntity.CompletedEventV2 event) {
+    log.info("Row: {}\n_Event: {}", viewState(), event);
+    if (viewState() == null) {
+      return effects().ignore();
+    }
+    return effects().updateState(viewState().withStatus("completed", null));
+  }
+
+  public UpdateEffect<Row> on(TrainingSessionEntity.CancelledEventV2 event) {
+    log.info("Row: {}\n_Event: {}", viewState(), event);
+    if (viewState() == null) {
+      return effects().ignore();
+    }
+    return effects().updateState(viewState().withStatus("cancelled", event.reason()));
+  }
+
+  public UpdateEffect<Row> on(TrainingSessionEntity.ScheduledEvent event) {
+    return on(event.upcast());
+  }
+
+  public UpdateEffect<Row> on(TrainingSessionEntity.CompletedEvent event) {
+    return on(event.upcast());
+  }
+
+  public UpdateEffect<Row> on(TrainingSessionEntity.CancelledEvent event) {
+    return on(event.upcast());
+  }
+
+  // Sessions are listed on the UTC day they start. startTime is the exact start of the entity key, the start minute
+  // and duration cover the whole minutes of the session for the range queries.
+  public record Row(String studentId, String instructorId, String aircraftId, Instant startTime, long startEpochMinute, int durationMinutes,
+      int year, int month, int day, String status, String reason, String sortKey) {
+    static Row of(TrainingSessionEntity.ScheduledEventV2 event) {
+      var slot = TimeSlot.of(event.startTime(), event.duration());
+      return new Row(event.studentId(), event.instructorId(), event.aircraftId(), event.startTime(), slot.epochMinute(), slot.durationMinutes(),
+          slot.year(), slot.month(), slot.day(), "scheduled", null, sortKey(event));
+    }
+
+    Row withStatus(String status, String reason) {
+      return new Row(studentId, instructorId, aircraftId, startTime, startEpochMinute, durationMinutes, year, month, day, status, reason, sortKey);
+    }
+
+    // The zero padded start second and nanosecond sort as text in start time order. Together with the participant
+    // ids they are the entity key, so the sort key is unique per session. Only start times from SORT_KEY_MIN until
+    // before SORT_KEY_MAX have twelve digits and no sign, new sessions outside that range are rejected by
+    // TrainingSessionEntity.State.rejectionFor. Sessions from older journals outside it are listed out of order.
+    static final Instant SORT_KEY_MIN = Instant.EPOCH;
+    static final Instant SORT_KEY_MAX = Instant.ofEpochSecond(1_000_000_000_000L);
+
+    static String sortKey(TrainingSessionEntity.ScheduledEventV2 event) {
+      var startTime = event.startTime();
+      return "%012d.%09d/%s/%s/%s".formatted(startTime.getEpochSecond(), startTime.getNano(), event.studentId(), event.instructorId(),
+          event.aircraftId());
+    }
+  }
+
+  public record Rows(List<Row> rows) {}
+}
@@ -0,0 +1,84 @@
+package io.example.wingplan;
+
+import kalix.javasdk.action.Action;
+import kalix.javasdk.annotations.Subscribe;
+import kalix.spring.KalixClient;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import com.typesafe.config.ConfigFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Offers released day calendar time to the waiting sessions that need it, one at a time in priority order, so a
+// higher priority request is booked before a lower priority one can take the time. Released time covers both
+// cancelled training sessions and released scheduleTime slots, which are migrated into the day calendars.
+//
+// A session that is still blocked, here or by another participant, stays on the waitlist and may also join the
+// waitlist of the participant that blocks it. Whichever list books it first wins, the other one then finds it
+// booked and drops it.
+@Subscribe.EventSourcedEntity(value = DayCalendarEntity.class)
+public class WaitlistAssignmentAction extends Action {
+  private static final int MAX_ATTEMPTS = ConfigFactory.load().getInt("wing-plan.waitlist.max-attempts-per-release");
+  private final Logger log = LoggerFactory.getLogger(WaitlistAssignmentAction.class);
+  private final KalixClient kalixClient;
+  private final TrainingSessionBookingAction booking;
+
+  // Waiting sessions are booked in this action rather than through the scheduleOrWait endpoint, which stamps a new
+  // request time and priority, so a session that is still blocked keeps its place on the next waitlist it joins.
+  public WaitlistAssignmentAction(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+    this.booking = new TrainingSessionBookingAction(kalixClient);
+  }
+
+  public Effect<String> on(DayCalendarEntity.ReservedEvent event) {
+    return effects().ignore();
+  }
+
+  public Effect<String> on(DayCalendarEntity.ReleasedEvent event) {
+    var path = WaitlistEntity.path(event.resourceType(), event.resourceId(), event.year(), event.month(), event.day());
+    return effects().asyncReply(
+        kalixClient.get(path, WaitlistEntity.State.class)
+            .execute()
+            .thenCompose(waitlist -> {
+              var candidates = waitlist.candidates(event.reservationId(), event.startMinute(), event.durationMinutes());
+              if (candidates.isEmpty()) {
+                return CompletableFuture.completedFuture("OK");
+              }
+              log.info("Event: {}, candidates: {}", event, candidates.size());
+              return offer(event, path, candidates.subList(0, Math.min(MAX_ATTEMPTS, candidates.size())), 0);
+            }));
+  }
+
+  private CompletionStage<String> offer(DayCalendarEntity.ReleasedEvent event, String path, List<WaitlistEntity.Entry> candidates, int index) {
+    if (index == candidates.size()) {
+      return CompletableFuture.completedFuture("OK");
+    }
+    var entry = candidates.get(index);
+    if (entry.session().startTime().isBefore(Instant.now())) {
+      return leave(event, path, entry, "expired")
+          .thenCompose(__ -> offer(event, path, candidates, index + 1));
+    }
+    return booking.scheduleOrWait(entry.session(), entry.priority(), Instant.ofEpochMilli(entry.requestEpochMilli()))
+        .thenCompose(result -> {
+          if ("waitlisted".equals(result.status())) {
+            return offer(event, path, candidates, index + 1);
+          }
+          if ("scheduled".equals(result.status())) {
+            Metrics.increment("waitlist.assigned");
+          }
+          return leave(event, path, entry, result.reason() == null ? result.status() : result.reason())
+              .thenCompose(__ -> offer(event, path, candidates, index + 1));
+        });
+  }
+
+  private CompletionStage<String> leave(DayCalendarEntity.ReleasedEvent event, String path, WaitlistEntity.Entry entry, String reason) {
+    var command = new WaitlistEntity.LeaveCommand(event.resourceType(), event.resourceId(), event.year(), event.month(), event.day(),
+        entry.requestId(), reason);
+    return kalixClient.put(path + "/leave", command, String.class).execute();
+  }
+}
@@ -0,0 +1,176 @@
+package io.example.wingplan;
+
+import kalix.javasdk.annotations.EntityKey;
+import kalix.javasdk.annotations.EntityType;
+import kalix.javasdk.annotations.EventHandler;
+import kalix.javasdk.eventsourcedentity.EventSourcedEntity;
+import kalix.javasdk.eventsourcedentity.EventSourcedEntityContext;
+import io.grpc.Status;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.web.bind.annotation.*;
+
+// Sessions waiting for time on one resource's day calendar, in priority order: higher priority first, then the
+// earlier request. startMinute and durationMinutes are the part of the session that falls on this day.
+@EntityKey({ "resourceType", "resourceId", "year", "month", "day" })
+@EntityType("waitlist")
+@RequestMapping("/waitlist/{resourceType}/{resourceId}/{year}/{month}/{day}")
+public class WaitlistEntity extends EventSourcedEntity<WaitlistEntity.State, WaitlistEntity.Event> {
+  private final String entityId;
+  private final EntityLogger log;
+
+  public WaitlistEntity(EventSourcedEntityContext context) {
+    this.entityId = context.entityId();
+    this.log = EntityLogger.of(WaitlistEntity.class, "waitlist", entityId);
+  }
+
+  @Override
+  public State emptyState() {
+    return State.emptyState();
+  }
+
+  @PutMapping("/join")
+  public Effect<String> join(@RequestBody JoinCommand command) {
+    log.command("join", command, this::currentState);
+    if (currentState().entry(command.requestId()).isPresent()) {
+      return effects().reply("OK");
+    }
+    if (command.requestId() == null || command.session() == null || command.requestTime() == null
+        || command.startMinute() == null || command.durationMinutes() == null) {
+      return effects().error("Request id, session, request time and time range are required", Status.Code.INVALID_ARGUMENT);
+    }
+    return effects()
+        .emitEvent(currentState().eventFor(command))
+        .thenReply(__ -> "OK");
+  }
+
+  @PutMapping("/leave")
+  public Effect<String> leave(@RequestBody LeaveCommand command) {
+    log.command("leave", command, this::currentState);
+    if (currentState().entry(command.requestId()).isEmpty()) {
+      return effects().reply("OK");
+    }
+    return effects()
+        .emitEvent(currentState().eventFor(command))
+        .thenReply(__ -> "OK");
+  }
+
+  @GetMapping
+  public Effect<State> getWaitlist() {
+    log.query("getWaitlist", this::currentState);
+    return effects().reply(currentState());
+  }
+
+  @EventHandler
+  public State on(JoinedEvent event) {
+    return currentState().on(event);
+  }
+
+  @EventHandler
+  public State on(LeftEvent event) {
+    return currentState().on(event);
+  }
+
+  static String path(String resourceType, String resourceId, int year, int month, int day) {
+    return "/waitlist/%s/%s/%d/%d/%d".formatted(resourceType, resourceId, year, month, day);
+  }
+
+  public record State(String resourceType, String resourceId, Integer year, Integer month, Integer day, List<Entry> entries) {
+    static final Comparator<Entry> PRIORITY_ORDER = Comparator.comparingInt(Entry::priority).reversed()
+        .thenComparingLong(Entry::requestEpochMilli)
+        .thenComparing(Entry::requestId);
+
+    static State emptyState() {
+      return new State(null, null, null, null, null, List.of());
+    }
+
+    boolean isEmpty() {
+      return resourceId == null || resourceId.isEmpty();
+    }
+
+    Optional<Entry> entry(String requestId) {
+      return entries.stream()
+          .filter(e -> e.requestId().equals(requestId))
+          .findFirst();
+    }
+
+    // The waiting sessions to offer released time to. A waiting session's request id is also its reservation id,
+    // so a release of a reservation with the id of an entry is the compensation of that entry's own failed booking
+    // attempt. It frees no time that was free before the attempt, and offering it again would retry the same
+    // attempt for as long as another participant stays busy.
+    List<Entry> candidates(String reservationId, int startMinute, int durationMinutes) {
+      return entry(reservationId).isPresent() ? List.of() : candidates(startMinute, durationMinutes);
+    }
+
+    // The waiting sessions that need time within [startMinute, startMinute + durationMinutes), in priority order.
+    List<Entry> candidates(int startMinute, int durationMinutes) {
+      var end = startMinute + durationMinutes;
+      return entries.stream()
+          .filter(e -> e.startMinute() < end && startMinute < e.startMinute() + e.durationMinutes())
+          .toList();
+    }
+
+    Event eventFor(JoinCommand command) {
+      return new JoinedEvent(command.resourceType(), command.resourceId(), command.year(), command.month(), command.day(), command.requestId(),
+          command.session(), command.priority() == null ? 0 : command.priority(), command.requestTime().toEpochMilli(), command.startMinute(),
+          command.durationMinutes());
+    }
+
+    Event eventFor(LeaveCommand command) {
+      return new LeftEvent(command.resourceType(), command.resourceId(), command.year(), command.month(), command.day(), command.requestId(),
+          command.reason());
+    }
+
+    State on(JoinedEvent event) {
+      var entry = new Entry(event.requestId(), event.session(), event.priority(), event.requestEpochMilli(), event.startMinute(), event.durationMinutes());
+      var entries = new ArrayList<Entry>(this.entries.size() + 1);
+      entries.addAll(this.entries);
+      var index = insertionPoint(entry);
+      entries.add(index, entry);
+      return new State(event.resourceType(), event.resourceId(), event.year(), event.month(), event.day(), entries);
+    }
+
+    State on(LeftEvent event) {
+      var entries = new ArrayList<>(this.entries);
+      if (!entries.removeIf(e -> e.requestId().equals(event.requestId()))) {
+        return this;
+      }
+      return new State(resourceType, resourceId, year, month, day, entries);
+    }
+
+    private int insertionPoint(Entry entry) {
+      int low = 0;
+      int high = entries.size();
+      while (low < high) {
+        var mid = (low + high) >>> 1;
+        if (PRIORITY_ORDER.compare(entries.get(mid), entry) <= 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+
+  public record Entry(String requestId, TrainingSessionEntity.ScheduleCommand session, int priority, long requestEpochMilli, int startMinute,
+      int durationMinutes) {}
+
+  public interface Event {}
+
+  public record JoinCommand(String resourceType, String resourceId, Integer year, Integer month, Integer day, String requestId,
+      TrainingSessionEntity.ScheduleCommand session, Integer priority, Instant requestTime, Integer startMinute, Integer durationMinutes) {}
+
+  public record LeaveCommand(String resourceType, String resourceId, Integer year, Integer month, Integer day, String requestId, String reason) {}
+
+  public record JoinedEvent(String resourceType, String resourceId, Integer year, Integer month, Integer day, String requestId,
+      TrainingSessionEntity.ScheduleCommand session, int priority, long requestEpochMilli, int startMinute, int durationMinutes) implements Event {}
+
+  public record LeftEvent(String resourceType, String resourceId, Integer year, Integer month, Integer day, String requestId, String reason)
+      implements Event {}
+}
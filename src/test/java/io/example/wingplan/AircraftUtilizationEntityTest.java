@@ -0,0 +1,187 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import kalix.javasdk.testkit.EventSourcedTestKit;
+
+public class AircraftUtilizationEntityTest {
+  @Test
+  public void recordFlightTest() {
+    var testKit = EventSourcedTestKit.of(AircraftUtilizationEntity::new);
+
+    var monday = Instant.parse("2023-01-02T09:00:00Z");
+    var command = new AircraftUtilizationEntity.RecordFlightCommand("aircraft1", "session1", monday, monday.plusSeconds(90 * 60));
+
+    {
+      var result = testKit.call(e -> e.recordFlight(command));
+      assertEquals("OK", result.getReply());
+
+      var event = result.getNextEventOfType(AircraftUtilizationEntity.FlightRecordedEvent.class);
+      assertEquals(90, event.minutes());
+
+      var state = testKit.getState();
+      assertEquals(90, state.totalMinutes());
+      assertEquals(90, state.minutesSinceInspection());
+      assertEquals(1, state.days().size());
+      assertEquals(LocalDate.of(2023, 1, 2).toEpochDay(), (long) state.days().firstKey());
+      assertEquals(LocalDate.of(2023, 1, 2).toEpochDay(), (long) state.weeks().firstKey());
+    }
+
+    { // idempotent test
+      var result = testKit.call(e -> e.recordFlight(command));
+      assertEquals(0, result.getAllEvents().size());
+      assertEquals(90, testKit.getState().totalMinutes());
+    }
+
+    { // same week, another day
+      var sunday = Instant.parse("2023-01-08T10:00:00Z");
+      testKit.call(e -> e.recordFlight(new AircraftUtilizationEntity.RecordFlightCommand("aircraft1", "session2", sunday, sunday.plusSeconds(3600))));
+
+      var state = testKit.getState();
+      assertEquals(150, state.totalMinutes());
+      assertEquals(2, state.days().size());
+      assertEquals(1, state.weeks().size());
+      assertEquals(150, (int) state.weeks().firstEntry().getValue());
+    }
+
+    { // a flight recorded late lands in its own, earlier bucket
+      var earlier = Instant.parse("2022-12-30T10:00:00Z");
+      testKit.call(e -> e.recordFlight(new AircraftUtilizationEntity.RecordFlightCommand("aircraft1", "session3", earlier, earlier.plusSeconds(1800))));
+
+      var state = testKit.getState();
+      assertEquals(180, state.totalMinutes());
+      assertEquals(LocalDate.of(2022, 12, 30).toEpochDay(), (long) state.days().firstKey());
+      assertEquals(LocalDate.of(2022, 12, 26).toEpochDay(), (long) state.weeks().firstKey());
+    }
+  }
+
+  @Test
+  public void removeFlightTest() {
+    var testKit = EventSourcedTestKit.of(AircraftUtilizationEntity::new);
+
+    var startTime = Instant.parse("2023-01-02T09:00:00Z");
+    testKit.call(e -> e.recordFlight(new AircraftUtilizationEntity.RecordFlightCommand("aircraft1", "session1", startTime, startTime.plusSeconds(3600))));
+
+    {
+      var result = testKit.call(e -> e.removeFlight(new AircraftUtilizationEntity.RemoveFlightCommand("aircraft1", "session1", null, null)));
+      assertEquals("OK", result.getReply());
+      result.getNextEventOfType(AircraftUtilizationEntity.FlightRemovedEvent.class);
+
+      var state = testKit.getState();
+      assertEquals(0, state.totalMinutes());
+      assertEquals(0, (int) state.days().firstEntry().getValue());
+      assertTrue(state.flights().get("session1").removed());
+    }
+
+    { // idempotent test
+      var result = testKit.call(e -> e.removeFlight(new AircraftUtilizationEntity.RemoveFlightCommand("aircraft1", "session1", startTime,
+          startTime.plusSeconds(3600))));
+      assertEquals(0, result.getAllEvents().size());
+      assertEquals(0, testKit.getState().totalMinutes());
+    }
+
+    { // unknown flights without times are ignored
+      var result = testKit.call(e -> e.removeFlight(new AircraftUtilizationEntity.RemoveFlightCommand("aircraft1", "session2", null, null)));
+      assertEquals(0, result.getAllEvents().size());
+    }
+  }
+
+  @Test
+  public void inspectTest() {
+    var testKit = EventSourcedTestKit.of(AircraftUtilizationEntity::new);
+
+    var first = Instant.parse("2023-01-02T09:00:00Z");
+    var inspection = Instant.parse("2023-01-03T08:00:00Z");
+    var second = Instant.parse("2023-01-04T09:00:00Z");
+    testKit.call(e -> e.recordFlight(new AircraftUtilizationEntity.RecordFlightCommand("aircraft1", "session1", first, first.plusSeconds(3600))));
+    testKit.call(e -> e.inspect(new AircraftUtilizationEntity.InspectCommand("aircraft1", inspection)));
+    testKit.call(e -> e.recordFlight(new AircraftUtilizationEntity.RecordFlightCommand("aircraft1", "session2", second, second.plusSeconds(1800))));
+    testKit.call(e -> e.recordFlight(new AircraftUtilizationEntity.RecordFlightCommand("aircraft1", "session0", first.minusSeconds(86400),
+        first.minusSeconds(86400 - 1800))));
+
+    var state = testKit.getState();
+    assertEquals(120, state.totalMinutes());
+    assertEquals(30, state.minutesSinceInspection());
+    assertEquals(inspection, state.lastInspectionTime());
+  }
+
+  @Test
+  public void retentionTest() {
+    var testKit = EventSourcedTestKit.of(AircraftUtilizationEntity::new);
+
+    var old = Instant.parse("2022-01-03T09:00:00Z");
+    var recent = Instant.parse("2023-06-05T09:00:00Z");
+    testKit.call(e -> e.recordFlight(new AircraftUtilizationEntity.RecordFlightCommand("aircraft1", "session1", recent, recent.plusSeconds(3600))));
+    testKit.call(e -> e.recordFlight(new AircraftUtilizationEntity.RecordFlightCommand("aircraft1", "session2", old, old.plusSeconds(3600))));
+
+    var state = testKit.getState();
+    assertEquals(120, state.totalMinutes());
+    assertEquals(120, state.minutesSinceInspection());
+    assertEquals(1, state.days().size());
+    assertEquals(1, state.weeks().size());
+    assertEquals(2, state.flights().size());
+
+    { // redelivered, not counted again
+      var result = testKit.call(e -> e.recordFlight(new AircraftUtilizationEntity.RecordFlightCommand("aircraft1", "session2", old, old.plusSeconds(3600))));
+      assertEquals("OK", result.getReply());
+      assertEquals(0, result.getAllEvents().size());
+      assertEquals(120, testKit.getState().totalMinutes());
+    }
+
+    { // removing the old flight corrects the totals
+      testKit.call(e -> e.removeFlight(new AircraftUtilizationEntity.RemoveFlightCommand("aircraft1", "session2", null, null)));
+      assertEquals(60, testKit.getState().totalMinutes());
+      assertEquals(60, testKit.getState().minutesSinceInspection());
+    }
+  }
+
+  @Test
+  public void recentFlightsTest() {
+    var testKit = EventSourcedTestKit.of(AircraftUtilizationEntity::new);
+
+    var first = Instant.parse("2023-01-02T09:00:00Z");
+    for (int i = 0; i <= AircraftUtilizationEntity.RECENT_FLIGHTS; i++) {
+      var startTime = first.plusSeconds(3600L * i);
+      var sessionId = "session" + i;
+      testKit.call(e -> e.recordFlight(new AircraftUtilizationEntity.RecordFlightCommand("aircraft1", sessionId, startTime, startTime.plusSeconds(60))));
+    }
+
+    var state = testKit.getState();
+    assertEquals(AircraftUtilizationEntity.RECENT_FLIGHTS + 1, state.totalMinutes());
+    assertEquals(AircraftUtilizationEntity.RECENT_FLIGHTS, state.flights().size());
+    assertFalse(state.flights().containsKey("session0"));
+
+    { // a flight that is no longer remembered is removed with its times
+      var result = testKit.call(e -> e.removeFlight(new AircraftUtilizationEntity.RemoveFlightCommand("aircraft1", "session0", first, first.plusSeconds(60))));
+      result.getNextEventOfType(AircraftUtilizationEntity.FlightRemovedEvent.class);
+      assertEquals(AircraftUtilizationEntity.RECENT_FLIGHTS, testKit.getState().totalMinutes());
+    }
+
+    { // inspections before the remembered flights cannot be counted from
+      var result = testKit.call(e -> e.inspect(new AircraftUtilizationEntity.InspectCommand("aircraft1", first)));
+      assertTrue(result.isError());
+    }
+  }
+
+  @Test
+  public void backdatedInspectionTest() {
+    var testKit = EventSourcedTestKit.of(AircraftUtilizationEntity::new);
+
+    var first = Instant.parse("2023-01-02T09:00:00Z");
+    var second = Instant.parse("2023-01-04T09:00:00Z");
+    testKit.call(e -> e.recordFlight(new AircraftUtilizationEntity.RecordFlightCommand("aircraft1", "session1", first, first.plusSeconds(3600))));
+    testKit.call(e -> e.recordFlight(new AircraftUtilizationEntity.RecordFlightCommand("aircraft1", "session2", second, second.plusSeconds(1800))));
+    testKit.call(e -> e.inspect(new AircraftUtilizationEntity.InspectCommand("aircraft1", Instant.parse("2023-01-03T08:00:00Z"))));
+
+    var state = testKit.getState();
+    assertEquals(90, state.totalMinutes());
+    assertEquals(30, state.minutesSinceInspection());
+  }
+}
@@ -0,0 +1,61 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+public class CoursePlannerTest {
+  @Test
+  public void solveTest() {
+    var students = List.of("student1", "student2", "student3");
+    var instructors = List.of("instructor1", "instructor2");
+    var aircraft = List.of("aircraft1");
+    var days = 3;
+    var busy = CoursePlanner.Problem.emptyBusy(students.size() + instructors.size() + aircraft.size(), days);
+    var aircraft1 = students.size() + instructors.size();
+    CoursePlanner.reserve(busy[aircraft1 * days], 480, 540);
+
+    var problem = new CoursePlanner.Problem(days, 480, 720, 60, 30, students, new int[] { 3, 3, 3 }, instructors, aircraft, busy);
+    var pool = new ForkJoinPool(2);
+    var plan = CoursePlanner.solve(problem, pool, 2, Duration.ofMillis(100), 1).join();
+    pool.shutdown();
+
+    assertEquals(0, plan.unassignedLessons());
+    assertEquals(9, plan.assignments().size());
+
+    var aircraftMinutes = new HashSet<Integer>();
+    var studentDays = new HashSet<String>();
+    for (var assignment : plan.assignments()) {
+      var start = assignment.day() * 1440 + assignment.startMinute();
+      assertTrue(assignment.startMinute() >= 480 && assignment.startMinute() + 60 <= 720);
+      assertFalse(assignment.day() == 0 && assignment.startMinute() < 540);
+      for (int minute = start; minute < start + 60; minute++) {
+        assertTrue(aircraftMinutes.add(minute));
+      }
+      assertTrue(studentDays.add(assignment.student() + "/" + assignment.day()));
+      assertEquals(assignment.lesson(), assignment.day());
+    }
+  }
+
+  @Test
+  public void overbookedTest() {
+    var students = List.of("student1", "student2");
+    var days = 1;
+    var busy = CoursePlanner.Problem.emptyBusy(4, days);
+
+    var problem = new CoursePlanner.Problem(days, 480, 600, 60, 60, students, new int[] { 2, 2 }, List.of("instructor1"), List.of("aircraft1"), busy);
+    var pool = new ForkJoinPool(2);
+    var plan = CoursePlanner.solve(problem, pool, 2, Duration.ofMillis(50), 1).join();
+    pool.shutdown();
+
+    assertEquals(2, plan.assignments().size());
+    assertEquals(2, plan.unassignedLessons());
+  }
+}
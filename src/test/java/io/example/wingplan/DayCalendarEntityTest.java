@@ -0,0 +1,138 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import kalix.javasdk.testkit.EventSourcedTestKit;
+
+public class DayCalendarEntityTest {
+  @Test
+  public void reserveTest() {
+    var testKit = EventSourcedTestKit.of(DayCalendarEntity::new);
+
+    var command = new DayCalendarEntity.ReserveCommand("aircraft", "aircraft1", 2023, 1, 1, "session1", 540, 90);
+
+    {
+      var result = testKit.call(e -> e.reserve(command));
+      assertEquals("OK", result.getReply());
+
+      var state = testKit.getState();
+      assertEquals("aircraft", state.resourceType());
+      assertEquals("aircraft1", state.resourceId());
+      assertEquals(1, state.reservations().size());
+      assertFalse(state.isFree(540, 1));
+      assertFalse(state.isFree(629, 1));
+      assertTrue(state.isFree(539, 1));
+      assertTrue(state.isFree(630, 1));
+
+      var event = result.getNextEventOfType(DayCalendarEntity.ReservedEvent.class);
+      assertEquals("session1", event.reservationId());
+      assertEquals(Integer.valueOf(540), event.startMinute());
+      assertEquals(Integer.valueOf(90), event.durationMinutes());
+    }
+
+    { // idempotent test
+      var result = testKit.call(e -> e.reserve(command));
+      assertEquals("OK", result.getReply());
+
+      var events = result.getAllEvents();
+      assertEquals(0, events.size());
+    }
+  }
+
+  @Test
+  public void rejectedTest() {
+    var testKit = EventSourcedTestKit.of(DayCalendarEntity::new);
+
+    {
+      var command = new DayCalendarEntity.ReserveCommand("aircraft", "aircraft1", 2023, 1, 1, "session1", 540, 90);
+      var result = testKit.call(e -> e.reserve(command));
+      assertEquals("OK", result.getReply());
+    }
+
+    { // overlaps the end of the first reservation
+      var command = new DayCalendarEntity.ReserveCommand("aircraft", "aircraft1", 2023, 1, 1, "session2", 600, 60);
+      var result = testKit.call(e -> e.reserve(command));
+      assertTrue(result.isError());
+      assertEquals(1, testKit.getState().reservations().size());
+    }
+
+    { // same reservation id with a different range
+      var command = new DayCalendarEntity.ReserveCommand("aircraft", "aircraft1", 2023, 1, 1, "session1", 700, 60);
+      var result = testKit.call(e -> e.reserve(command));
+      assertTrue(result.isError());
+    }
+
+    { // past the end of the day
+      var command = new DayCalendarEntity.ReserveCommand("aircraft", "aircraft1", 2023, 1, 1, "session3", 1400, 60);
+      var result = testKit.call(e -> e.reserve(command));
+      assertTrue(result.isError());
+    }
+
+    { // adjacent ranges do not conflict
+      var command = new DayCalendarEntity.ReserveCommand("aircraft", "aircraft1", 2023, 1, 1, "session4", 630, 60);
+      var result = testKit.call(e -> e.reserve(command));
+      assertEquals("OK", result.getReply());
+      assertEquals(2, testKit.getState().reservations().size());
+    }
+  }
+
+  @Test
+  public void releaseTest() {
+    var testKit = EventSourcedTestKit.of(DayCalendarEntity::new);
+
+    {
+      var command = new DayCalendarEntity.ReserveCommand("aircraft", "aircraft1", 2023, 1, 1, "session1", 0, 1440);
+      var result = testKit.call(e -> e.reserve(command));
+      assertEquals("OK", result.getReply());
+      assertFalse(testKit.getState().isFree(1439, 1));
+    }
+
+    {
+      var command = new DayCalendarEntity.ReleaseCommand("aircraft", "aircraft1", 2023, 1, 1, "session1");
+      var result = testKit.call(e -> e.release(command));
+      assertEquals("OK", result.getReply());
+
+      var state = testKit.getState();
+      assertEquals(0, state.reservations().size());
+      assertTrue(state.isFree(0, 1440));
+
+      var event = result.getNextEventOfType(DayCalendarEntity.ReleasedEvent.class);
+      assertEquals("session1", event.reservationId());
+      assertEquals(Integer.valueOf(0), event.startMinute());
+      assertEquals(Integer.valueOf(1440), event.durationMinutes());
+    }
+
+    { // idempotent test
+      var command = new DayCalendarEntity.ReleaseCommand("aircraft", "aircraft1", 2023, 1, 1, "session1");
+      var result = testKit.call(e -> e.release(command));
+      assertEquals("OK", result.getReply());
+
+      var events = result.getAllEvents();
+      assertEquals(0, events.size());
+    }
+  }
+
+  @Test
+  public void isConflictTest() {
+    assertTrue(DayCalendarEntity.isConflict(new CompletionException(response(400, DayCalendarEntity.NOT_AVAILABLE))));
+    assertTrue(DayCalendarEntity.isConflict(response(400, DayCalendarEntity.CONFLICTING_RESERVATION)));
+    assertFalse(DayCalendarEntity.isConflict(response(400, "Time range must be within the day")));
+    assertFalse(DayCalendarEntity.isConflict(response(404, "")));
+    assertFalse(DayCalendarEntity.isConflict(response(503, DayCalendarEntity.NOT_AVAILABLE)));
+    assertFalse(DayCalendarEntity.isConflict(new CompletionException(new TimeoutException())));
+  }
+
+  private static WebClientResponseException response(int status, String body) {
+    return WebClientResponseException.create(status, "", HttpHeaders.EMPTY, body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,35 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class FreeSlotSearchActionTest {
+  @Test
+  public void searchTest() {
+    var instructor1 = ResourceCalendarView.Row.emptyRow()
+        .on(new DayCalendarEntity.ReservedEvent("instructor", "instructor1", 2023, 1, 3, "session1", 780, 120));
+    var aircraft1 = ResourceCalendarView.Row.emptyRow()
+        .on(new DayCalendarEntity.ReservedEvent("aircraft", "aircraft1", 2023, 1, 3, "session2", 720, 60));
+
+    var query = new FreeSlotSearchAction.SearchQuery(2023, 1, 3, 720, 1080, 120,
+        List.of("instructor1", "instructor2"), List.of("aircraft1"));
+    var result = FreeSlotSearchAction.search(query, List.of(instructor1), List.of(aircraft1));
+
+    assertEquals(List.of(
+        new FreeSlotSearchAction.FreeSlot("instructor1", "aircraft1", 900, 1080),
+        new FreeSlotSearchAction.FreeSlot("instructor2", "aircraft1", 780, 1080)),
+        result.slots());
+  }
+
+  @Test
+  public void calendarsPathTest() {
+    var query = new FreeSlotSearchAction.SearchQuery(2023, 1, 3, 720, 1080, 120,
+        List.of("instructor1", "instructor 2", "instructor1"), List.of("aircraft1"));
+
+    assertEquals("/resourceCalendars/2023/1/3/instructor/byIds?resourceIds=instructor1&resourceIds=instructor+2",
+        FreeSlotSearchAction.calendarsPath(query, "instructor", query.instructorIds()));
+  }
+}
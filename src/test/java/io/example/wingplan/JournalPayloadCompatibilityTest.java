@@ -0,0 +1,111 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+import kalix.javasdk.JsonSupport;
+
+// Journal payloads as written by earlier versions must read back to the same records with the object mapper the SDK
+// uses, and the version 2 events must keep writing the payloads they write now. Version 1 training session events
+// are included with ISO-8601 and numeric time encodings.
+public class JournalPayloadCompatibilityTest {
+  private final Instant startTime = Instant.parse("2023-01-01T09:00:00Z");
+  private final long startEpochMinute = startTime.getEpochSecond() / 60;
+  private final ObjectMapper objectMapper = JsonSupport.getObjectMapper();
+
+  private record Payload(String json, Object record) {}
+
+  private List<Payload> payloads() {
+    var payloads = new ArrayList<Payload>();
+    payloads.add(new Payload("{\"year\":2023,\"month\":1,\"day\":1,\"minuteOfDay\":540,\"type\":\"student\",\"id\":\"student1\"}",
+        new ScheduleTimeEntity.ScheduledEvent(2023, 1, 1, 540, "student", "student1")));
+    payloads.add(new Payload("{\"year\":2023,\"month\":1,\"day\":1,\"minuteOfDay\":540,\"type\":\"student\",\"id\":\"student1\"}",
+        new ScheduleTimeEntity.ReleasedEvent(2023, 1, 1, 540, "student", "student1")));
+    payloads.add(new Payload("{\"epochMinute\":" + startEpochMinute + ",\"type\":\"student\",\"id\":\"student1\",\"expiresEpochSecond\":1672563900}",
+        new ScheduleTimeEntity.HeldEvent(startEpochMinute, "student", "student1", 1672563900L)));
+    payloads.add(new Payload("{\"studentId\":\"student1\",\"instructorId\":\"instructor1\",\"aircraftId\":\"aircraft1\","
+            + "\"startTime\":\"2023-01-01T09:00:00Z\",\"duration\":\"PT1H30M\"}",
+        new TrainingSessionEntity.ScheduledEvent("student1", "instructor1", "aircraft1", startTime, Duration.ofMinutes(90))));
+    payloads.add(new Payload("{\"studentId\":\"student1\",\"instructorId\":\"instructor1\",\"aircraftId\":\"aircraft1\","
+            + "\"startTime\":1672563600.000000000,\"duration\":5400.000000000}",
+        new TrainingSessionEntity.ScheduledEvent("student1", "instructor1", "aircraft1", startTime, Duration.ofMinutes(90))));
+    payloads.add(new Payload("{\"studentId\":\"student1\",\"instructorId\":\"instructor1\",\"aircraftId\":\"aircraft1\","
+            + "\"startTime\":\"2023-01-01T09:00:00Z\",\"cancelledTime\":\"2023-01-01T07:30:00Z\",\"reason\":\"weather\"}",
+        new TrainingSessionEntity.CancelledEvent("student1", "instructor1", "aircraft1", startTime, startTime.minusSeconds(5400), "weather")));
+    payloads.add(new Payload("{\"studentId\":\"student1\",\"instructorId\":\"instructor1\",\"aircraftId\":\"aircraft1\","
+            + "\"startTime\":\"2023-01-01T09:00:00Z\",\"completedTime\":\"2023-01-01T10:30:00Z\"}",
+        new TrainingSessionEntity.CompletedEvent("student1", "instructor1", "aircraft1", startTime, startTime.plusSeconds(5400))));
+    payloads.addAll(version2Payloads());
+    payloads.add(new Payload("{\"resourceType\":\"aircraft\",\"resourceId\":\"aircraft1\",\"year\":2023,\"month\":1,\"day\":1,"
+            + "\"reservationId\":\"session1\",\"startMinute\":540,\"durationMinutes\":90}",
+        new DayCalendarEntity.ReservedEvent("aircraft", "aircraft1", 2023, 1, 1, "session1", 540, 90)));
+    payloads.add(new Payload("{\"studentId\":\"student1\",\"name\":\"Jane Doe\",\"courseId\":\"course1\"}",
+        new StudentEntity.CreatedStudentEvent("student1", "Jane Doe", "course1")));
+    payloads.add(new Payload("{\"aircraftId\":\"aircraft1\",\"name\":\"Cessna 172\",\"courseId\":\"course1\"}",
+        new AircraftEntity.CreatedAircraftEvent("aircraft1", "Cessna 172", "course1")));
+    payloads.add(new Payload("{\"instructorId\":\"instructor1\",\"name\":\"John Doe\",\"courseId\":\"course1\"}",
+        new InstructorEntity.CreatedInstructorEvent("instructor1", "John Doe", "course1")));
+    payloads.add(new Payload("{\"studentId\":\"student1\",\"instructorId\":\"instructor1\",\"aircraftId\":\"aircraft1\","
+            + "\"startTime\":\"2023-01-01T09:00:00.000123456Z\",\"duration\":\"PT1H30M\",\"completedTime\":null,\"cancelledTime\":null}",
+        new TrainingSessionEntity.State("student1", "instructor1", "aircraft1", startTime.plusNanos(123456), Duration.ofMinutes(90), null, null)));
+    return payloads;
+  }
+
+  private List<Payload> version2Payloads() {
+    var payloads = new ArrayList<Payload>();
+    payloads.add(new Payload("{\"epochMinute\":" + startEpochMinute + ",\"type\":\"student\",\"id\":\"student1\"}",
+        new ScheduleTimeEntity.ScheduledEventV2(startEpochMinute, "student", "student1")));
+    payloads.add(new Payload("{\"epochMinute\":" + startEpochMinute + ",\"type\":\"student\",\"id\":\"student1\"}",
+        new ScheduleTimeEntity.ReleasedEventV2(startEpochMinute, "student", "student1")));
+    payloads.add(new Payload("{\"studentId\":\"student1\",\"instructorId\":\"instructor1\",\"aircraftId\":\"aircraft1\","
+            + "\"startEpochSecond\":1672563600,\"startNano\":123456,\"durationSeconds\":5400}",
+        TrainingSessionEntity.ScheduledEventV2.of("student1", "instructor1", "aircraft1", startTime.plusNanos(123456), Duration.ofMinutes(90))));
+    payloads.add(new Payload("{\"studentId\":\"student1\",\"instructorId\":\"instructor1\",\"aircraftId\":\"aircraft1\","
+            + "\"startEpochSecond\":1672563600,\"completedEpochSecond\":1672569000}",
+        TrainingSessionEntity.CompletedEventV2.of("student1", "instructor1", "aircraft1", startTime, startTime.plusSeconds(5400))));
+    payloads.add(new Payload("{\"studentId\":\"student1\",\"instructorId\":\"instructor1\",\"aircraftId\":\"aircraft1\","
+            + "\"startEpochSecond\":1672563600,\"cancelledEpochSecond\":1672558200,\"reason\":\"weather\"}",
+        TrainingSessionEntity.CancelledEventV2.of("student1", "instructor1", "aircraft1", startTime, startTime.minusSeconds(5400), "weather")));
+    return payloads;
+  }
+
+  @Test
+  public void readsJournalPayloadsTest() throws Exception {
+    for (var payload : payloads()) {
+      var type = payload.record().getClass();
+      assertEquals(payload.json(), payload.record(), objectMapper.readValue(payload.json(), type));
+    }
+  }
+
+  // Instructor events were first written with the instructor id under studentId.
+  @Test
+  public void readsInstructorIdAliasTest() throws Exception {
+    var json = "{\"studentId\":\"instructor1\",\"name\":\"John Doe\",\"courseId\":\"course1\"}";
+    var event = new InstructorEntity.CreatedInstructorEvent("instructor1", "John Doe", "course1");
+    assertEquals(event, objectMapper.readValue(json, InstructorEntity.CreatedInstructorEvent.class));
+    assertEquals(new InstructorEntity.State("instructor1", "John Doe", "course1"), objectMapper.readValue(json, InstructorEntity.State.class));
+  }
+
+  @Test
+  public void writesVersion2PayloadsTest() throws Exception {
+    for (var payload : version2Payloads()) {
+      assertEquals(payload.json(), objectMapper.writeValueAsString(payload.record()));
+    }
+  }
+
+  @Test
+  public void roundTripTest() throws Exception {
+    for (var payload : payloads()) {
+      var record = payload.record();
+      assertEquals(record, objectMapper.readValue(objectMapper.writeValueAsString(record), record.getClass()));
+    }
+  }
+}
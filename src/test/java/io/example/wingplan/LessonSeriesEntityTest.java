@@ -0,0 +1,122 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.jupiter.api.Test;
+
+import kalix.javasdk.testkit.EventSourcedTestKit;
+
+public class LessonSeriesEntityTest {
+  private final Instant firstStartTime = Instant.parse("2099-01-05T09:00:00Z");
+  private final LessonSeriesEntity.CreateSeriesCommand createCommand =
+      new LessonSeriesEntity.CreateSeriesCommand("series1", "student1", "instructor1", "aircraft1", firstStartTime, Duration.ofMinutes(90), 7, 10);
+
+  @Test
+  public void materializeTest() {
+    var testKit = EventSourcedTestKit.of(LessonSeriesEntity::new);
+    testKit.call(e -> e.create(createCommand));
+
+    var now = firstStartTime.minusSeconds(60);
+    var command = new LessonSeriesEntity.MaterializeCommand("series1", now, now.plus(Duration.ofDays(28)));
+
+    {
+      var result = testKit.call(e -> e.materialize(command));
+      var materialized = result.getReply();
+      assertEquals(4, materialized.sessions().size());
+      assertEquals(firstStartTime.plus(Duration.ofDays(21)), materialized.sessions().get(3).startTime());
+      assertEquals(Duration.ofMinutes(90), materialized.sessions().get(3).duration());
+      assertEquals(firstStartTime, materialized.nextMaterializeTime());
+
+      var event = result.getNextEventOfType(LessonSeriesEntity.OccurrencesMaterializedEvent.class);
+      assertEquals(4, event.materializedCount());
+    }
+
+    { // nothing new within the same horizon
+      var result = testKit.call(e -> e.materialize(command));
+      assertEquals(4, result.getReply().sessions().size());
+      assertEquals(0, result.getAllEvents().size());
+    }
+
+    { // the horizon moves on by a week, the first occurrence has started
+      var later = now.plus(Duration.ofDays(7));
+      var result = testKit.call(e -> e.materialize(new LessonSeriesEntity.MaterializeCommand("series1", later, later.plus(Duration.ofDays(28)))));
+      assertEquals(4, result.getReply().sessions().size());
+      assertEquals(firstStartTime.plus(Duration.ofDays(7)), result.getReply().sessions().get(0).startTime());
+      assertEquals(5, testKit.getState().materializedCount());
+    }
+  }
+
+  @Test
+  public void skipTest() {
+    var testKit = EventSourcedTestKit.of(LessonSeriesEntity::new);
+    testKit.call(e -> e.create(createCommand));
+
+    var now = firstStartTime.minusSeconds(60);
+    var command = new LessonSeriesEntity.MaterializeCommand("series1", now, now.plus(Duration.ofDays(28)));
+    testKit.call(e -> e.materialize(command));
+
+    {
+      var result = testKit.call(e -> e.skip(new LessonSeriesEntity.SkipOccurrenceCommand("series1", firstStartTime.plus(Duration.ofDays(14)))));
+      assertEquals("OK", result.getReply());
+
+      var event = result.getNextEventOfType(LessonSeriesEntity.OccurrenceSkippedEvent.class);
+      assertTrue(event.materialized());
+    }
+
+    {
+      var result = testKit.call(e -> e.skip(new LessonSeriesEntity.SkipOccurrenceCommand("series1", firstStartTime.plus(Duration.ofDays(15)))));
+      assertTrue(result.isError());
+    }
+
+    {
+      var result = testKit.call(e -> e.materialize(command));
+      assertEquals(3, result.getReply().sessions().size());
+    }
+
+    {
+      var result = testKit.call(e -> e.cancel(new LessonSeriesEntity.CancelSeriesCommand("series1", "course withdrawn")));
+      assertEquals("OK", result.getReply());
+
+      var event = result.getNextEventOfType(LessonSeriesEntity.SeriesCancelledEvent.class);
+      assertEquals(3, event.bookedStartEpochMinutes().size());
+
+      var materialized = testKit.call(e -> e.materialize(command)).getReply();
+      assertEquals(0, materialized.sessions().size());
+      assertEquals(null, materialized.nextMaterializeTime());
+    }
+  }
+
+  @Test
+  public void skipStartedTest() {
+    var testKit = EventSourcedTestKit.of(LessonSeriesEntity::new);
+    var firstStartTime = Instant.now().minus(Duration.ofDays(8)).truncatedTo(ChronoUnit.MINUTES);
+    testKit.call(e -> e.create(new LessonSeriesEntity.CreateSeriesCommand("series1", "student1", "instructor1", "aircraft1", firstStartTime,
+        Duration.ofMinutes(90), 7, 10)));
+
+    var result = testKit.call(e -> e.skip(new LessonSeriesEntity.SkipOccurrenceCommand("series1", firstStartTime.plus(Duration.ofDays(7)))));
+    assertTrue(result.isError());
+
+    result = testKit.call(e -> e.skip(new LessonSeriesEntity.SkipOccurrenceCommand("series1", firstStartTime.plus(Duration.ofDays(14)))));
+    assertEquals("OK", result.getReply());
+  }
+
+  @Test
+  public void withdrawnTest() {
+    var testKit = EventSourcedTestKit.of(LessonSeriesEntity::new);
+    testKit.call(e -> e.create(createCommand));
+    testKit.call(e -> e.skip(new LessonSeriesEntity.SkipOccurrenceCommand("series1", firstStartTime.plus(Duration.ofDays(7)))));
+
+    var state = testKit.getState();
+    assertTrue(state.isWithdrawn(TimeSlot.epochMinute(firstStartTime.plus(Duration.ofDays(7)))));
+    assertFalse(state.isWithdrawn(TimeSlot.epochMinute(firstStartTime)));
+
+    testKit.call(e -> e.cancel(new LessonSeriesEntity.CancelSeriesCommand("series1", "course withdrawn")));
+    assertTrue(testKit.getState().isWithdrawn(TimeSlot.epochMinute(firstStartTime)));
+  }
+}
@@ -0,0 +1,56 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class ReferenceDataCacheTest {
+  @Test
+  public void readThroughTest() {
+    var loads = new AtomicInteger();
+    var state = new StudentEntity.State("cache-student1", "Jane Doe", "course1");
+
+    for (int i = 0; i < 3; i++) {
+      var value = ReferenceDataCache.get("student/cache-student1", () -> {
+        loads.incrementAndGet();
+        return CompletableFuture.completedFuture(state);
+      }, s -> !s.isEmpty()).toCompletableFuture().join();
+      assertEquals(state, value);
+    }
+    assertEquals(1, loads.get());
+
+    ReferenceDataCache.invalidate("student", "cache-student1");
+    ReferenceDataCache.get("student/cache-student1", () -> {
+      loads.incrementAndGet();
+      return CompletableFuture.completedFuture(state);
+    }, s -> !s.isEmpty()).toCompletableFuture().join();
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void emptyNotCachedTest() {
+    var loads = new AtomicInteger();
+    for (int i = 0; i < 2; i++) {
+      ReferenceDataCache.get("student/cache-student2", () -> {
+        loads.incrementAndGet();
+        return CompletableFuture.completedFuture(StudentEntity.State.emptyState());
+      }, s -> !s.isEmpty()).toCompletableFuture().join();
+    }
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void failedLoadNotCachedTest() {
+    var loads = new AtomicInteger();
+    for (int i = 0; i < 2; i++) {
+      ReferenceDataCache.<StudentEntity.State>get("student/cache-student3", () -> {
+        loads.incrementAndGet();
+        return CompletableFuture.failedFuture(new IllegalStateException("unavailable"));
+      }, s -> !s.isEmpty()).toCompletableFuture().exceptionally(error -> null).join();
+    }
+    assertEquals(2, loads.get());
+  }
+}
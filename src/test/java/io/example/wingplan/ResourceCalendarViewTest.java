@@ -0,0 +1,60 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ResourceCalendarViewTest {
+  @Test
+  public void reserveTest() {
+    var row = ResourceCalendarView.Row.emptyRow()
+        .on(new DayCalendarEntity.ReservedEvent("aircraft", "aircraft1", 2023, 1, 1, "session1", 540, 90))
+        .on(new DayCalendarEntity.ReservedEvent("aircraft", "aircraft1", 2023, 1, 1, "session2", 0, 60));
+
+    assertEquals("aircraft1", row.resourceId());
+    assertEquals(List.of(gap(60, 540), gap(630, 1440)), row.freeGaps());
+  }
+
+  @Test
+  public void releaseTest() {
+    var row = ResourceCalendarView.Row.emptyRow()
+        .on(new DayCalendarEntity.ReservedEvent("aircraft", "aircraft1", 2023, 1, 1, "session1", 540, 60))
+        .on(new DayCalendarEntity.ReservedEvent("aircraft", "aircraft1", 2023, 1, 1, "session2", 600, 60))
+        .on(new DayCalendarEntity.ReservedEvent("aircraft", "aircraft1", 2023, 1, 1, "session3", 720, 60));
+    assertEquals(List.of(gap(0, 540), gap(660, 720), gap(780, 1440)), row.freeGaps());
+
+    { // merges with the following gap only
+      var released = row.on(new DayCalendarEntity.ReleasedEvent("aircraft", "aircraft1", 2023, 1, 1, "session2", 600, 60));
+      assertEquals(List.of(gap(0, 540), gap(600, 720), gap(780, 1440)), released.freeGaps());
+    }
+
+    { // merges with the preceding gap only
+      var released = row.on(new DayCalendarEntity.ReleasedEvent("aircraft", "aircraft1", 2023, 1, 1, "session1", 540, 60));
+      assertEquals(List.of(gap(0, 600), gap(660, 720), gap(780, 1440)), released.freeGaps());
+    }
+
+    { // merges with both neighbours
+      var released = row
+          .on(new DayCalendarEntity.ReleasedEvent("aircraft", "aircraft1", 2023, 1, 1, "session1", 540, 60))
+          .on(new DayCalendarEntity.ReleasedEvent("aircraft", "aircraft1", 2023, 1, 1, "session3", 720, 60))
+          .on(new DayCalendarEntity.ReleasedEvent("aircraft", "aircraft1", 2023, 1, 1, "session2", 600, 60));
+      assertEquals(List.of(gap(0, 1440)), released.freeGaps());
+    }
+  }
+
+  @Test
+  public void freeWithinTest() {
+    var row = ResourceCalendarView.Row.emptyRow()
+        .on(new DayCalendarEntity.ReservedEvent("aircraft", "aircraft1", 2023, 1, 1, "session1", 780, 60))
+        .on(new DayCalendarEntity.ReservedEvent("aircraft", "aircraft1", 2023, 1, 1, "session2", 900, 30));
+
+    assertEquals(List.of(gap(720, 780), gap(840, 900), gap(930, 1080)), row.freeWithin(720, 1080, 60));
+    assertEquals(List.of(gap(930, 1080)), row.freeWithin(720, 1080, 120));
+  }
+
+  private static ResourceCalendarView.Gap gap(int startMinute, int endMinute) {
+    return new ResourceCalendarView.Gap(startMinute, endMinute);
+  }
+}
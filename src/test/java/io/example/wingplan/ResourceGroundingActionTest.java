@@ -0,0 +1,47 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ResourceGroundingActionTest {
+  @Test
+  public void pageTest() {
+    var from = Instant.parse("2023-01-02T00:00:00Z");
+    var to = Instant.parse("2023-01-03T00:00:00Z");
+    var grounding = new ResourceGroundingEntity.State("grounding1", "aircraft", "aircraft1", from, to, "AOG", "", 0, List.of(), false);
+    var page = ResourceGroundingAction.Page.of(grounding, 200);
+
+    var fromMinute = TimeSlot.epochMinute(from);
+    assertTrue(page.viewPath().startsWith("/trainingSessions/byAircraft/aircraft1?after=&fromMinute=" + (fromMinute - TimeSlot.MINUTES_PER_DAY)));
+    assertTrue(page.viewPath().endsWith("&statuses=scheduled&limit=200"));
+
+    assertTrue(page.affects(row(fromMinute - 30, 60)));
+    assertTrue(page.affects(row(fromMinute + 600, 60)));
+    assertEquals(false, page.affects(row(fromMinute - 60, 60)));
+    assertEquals(false, page.affects(row(TimeSlot.epochMinute(to), 60)));
+  }
+
+  @Test
+  public void cancelCommandTest() {
+    var grounding = new ResourceGroundingEntity.State("grounding1", "aircraft", "aircraft1", Instant.parse("2023-01-02T00:00:00Z"),
+        Instant.parse("2023-01-03T00:00:00Z"), "AOG", "", 0, List.of(), false);
+    var startTime = Instant.parse("2023-01-02T09:00:30.25Z");
+    var row = TrainingSessionsView.Row.of(TrainingSessionEntity.ScheduledEventV2.of("student1", "instructor1", "aircraft1", startTime,
+        Duration.ofMinutes(60)));
+
+    var command = ResourceGroundingAction.cancelCommand(grounding, row, Instant.parse("2023-01-01T12:00:00Z"));
+    assertEquals(startTime, command.startTime());
+    assertEquals("Grounded: AOG", command.reason());
+  }
+
+  private static TrainingSessionsView.Row row(long startEpochMinute, int durationMinutes) {
+    return TrainingSessionsView.Row.of(TrainingSessionEntity.ScheduledEventV2.of("student1", "instructor1", "aircraft1",
+        Instant.ofEpochSecond(startEpochMinute * 60), Duration.ofMinutes(durationMinutes)));
+  }
+}
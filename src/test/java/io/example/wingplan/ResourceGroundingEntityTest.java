@@ -0,0 +1,65 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import kalix.javasdk.testkit.EventSourcedTestKit;
+
+public class ResourceGroundingEntityTest {
+  private final Instant from = Instant.parse("2023-01-02T00:00:00Z");
+  private final Instant to = Instant.parse("2023-01-05T00:00:00Z");
+
+  @Test
+  public void createTest() {
+    var testKit = EventSourcedTestKit.of(ResourceGroundingEntity::new);
+
+    {
+      var command = new ResourceGroundingEntity.GroundCommand("grounding1", "aircraft", "aircraft1", to, from, "AOG");
+      var result = testKit.call(e -> e.create(command));
+      assertTrue(result.isError());
+    }
+
+    {
+      var command = new ResourceGroundingEntity.GroundCommand("grounding1", "aircraft", "aircraft1", from, to, "AOG");
+      var result = testKit.call(e -> e.create(command));
+      assertEquals("OK", result.getReply());
+
+      var state = testKit.getState();
+      assertEquals("aircraft1", state.resourceId());
+      assertEquals("", state.cursor());
+      assertEquals(false, state.done());
+    }
+  }
+
+  @Test
+  public void progressTest() {
+    var testKit = EventSourcedTestKit.of(ResourceGroundingEntity::new);
+    testKit.call(e -> e.create(new ResourceGroundingEntity.GroundCommand("grounding1", "aircraft", "aircraft1", from, to, "AOG")));
+
+    testKit.call(e -> e.progress(new ResourceGroundingEntity.ProgressCommand("grounding1", "000000000100/s1/i1/aircraft1", 2, List.of(), false)));
+
+    { // a page that is processed again after a restart is not counted twice
+      var result = testKit.call(e -> e.progress(new ResourceGroundingEntity.ProgressCommand("grounding1", "000000000100/s1/i1/aircraft1", 2, List.of(), false)));
+      assertEquals(0, result.getAllEvents().size());
+    }
+
+    testKit.call(e -> e.progress(new ResourceGroundingEntity.ProgressCommand("grounding1", "000000000200/s2/i1/aircraft1", 1,
+        List.of("000000000150/s3/i1/aircraft1"), true)));
+
+    var state = testKit.getState();
+    assertEquals(3, state.cancelledCount());
+    assertEquals(List.of("000000000150/s3/i1/aircraft1"), state.failedSessions());
+    assertEquals("000000000200/s2/i1/aircraft1", state.cursor());
+    assertTrue(state.done());
+
+    { // nothing changes once the run is done
+      var result = testKit.call(e -> e.progress(new ResourceGroundingEntity.ProgressCommand("grounding1", "000000000300/s4/i1/aircraft1", 1, List.of(), true)));
+      assertEquals(0, result.getAllEvents().size());
+    }
+  }
+}
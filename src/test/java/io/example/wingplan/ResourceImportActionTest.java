@@ -0,0 +1,35 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class ResourceImportActionTest {
+  @Test
+  public void csvRowTest() {
+    var row = ResourceImportAction.ImportRow.fromCsv("student1, Jane Doe ,course1");
+    assertEquals(new ResourceImportAction.ImportRow("student1", "Jane Doe", "course1"), row);
+    assertEquals("/student/student1/create", row.createPath("student"));
+    assertEquals(new StudentEntity.CreateStudentCommand("student1", "Jane Doe", "course1"), row.createCommand("student"));
+  }
+
+  @Test
+  public void quotedCsvRowTest() {
+    var row = ResourceImportAction.ImportRow.fromCsv("aircraft1,\"Cessna 172, \"\"Skyhawk\"\"\",course1");
+    assertEquals("Cessna 172, \"Skyhawk\"", row.name());
+    assertEquals(new AircraftEntity.CreateAircraftCommand("aircraft1", "Cessna 172, \"Skyhawk\"", "course1"), row.createCommand("aircraft"));
+  }
+
+  @Test
+  public void invalidCsvRowTest() {
+    assertThrows(IllegalArgumentException.class, () -> ResourceImportAction.ImportRow.fromCsv("student1,Jane Doe"));
+    assertThrows(IllegalArgumentException.class, () -> ResourceImportAction.ImportRow.fromCsv(",Jane Doe,course1"));
+  }
+
+  @Test
+  public void encodedPathTest() {
+    var row = ResourceImportAction.ImportRow.fromCsv("\"N12/3 ?x\",Cessna 172,course1");
+    assertEquals("/aircraft/N12%2F3%20%3Fx/create", row.createPath("aircraft"));
+  }
+}
@@ -1,9 +1,21 @@
 package io.example.wingplan;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import kalix.javasdk.JsonSupport;
 import kalix.javasdk.testkit.EventSourcedTestKit;
 
 public class ScheduleTimeEntityTest {
@@ -24,18 +36,12 @@ public class ScheduleTimeEntityTest {
       assertEquals("OK", result.getReply());
 
       var state = testKit.getState();
-      assertEquals(year, state.year());
-      assertEquals(month, state.month());
-      assertEquals(day, state.day());
-      assertEquals(minuteOfDay, state.minuteOfDay());
+      assertEquals(TimeSlot.of(year, month, day, minuteOfDay, 1), state.slot());
       assertEquals(type, state.type());
       assertEquals(id, state.id());
 
-      var event = result.getNextEventOfType(ScheduleTimeEntity.ScheduledEvent.class);
-      assertEquals(year, event.year());
-      assertEquals(month, event.month());
-      assertEquals(day, event.day());
-      assertEquals(minuteOfDay, event.minuteOfDay());
+      var event = result.getNextEventOfType(ScheduleTimeEntity.ScheduledEventV2.class);
+      assertEquals(LocalDate.of(2023, 1, 1).toEpochDay() * 24 * 60 + 1, event.epochMinute());
       assertEquals(type, event.type());
       assertEquals(id, event.id());
     }
@@ -45,10 +51,7 @@ public class ScheduleTimeEntityTest {
       assertEquals("OK", result.getReply());
 
       var state = testKit.getState();
-      assertEquals(year, state.year());
-      assertEquals(month, state.month());
-      assertEquals(day, state.day());
-      assertEquals(minuteOfDay, state.minuteOfDay());
+      assertEquals(TimeSlot.of(year, month, day, minuteOfDay, 1), state.slot());
       assertEquals(type, state.type());
       assertEquals(id, state.id());
 
@@ -79,23 +82,70 @@ public class ScheduleTimeEntityTest {
       var command2 = new ScheduleTimeEntity.ScheduleCommand(year, month, day, minuteOfDay, type, id2);
 
       var result = testKit.call(e -> e.schedule(command2));
-      assertEquals("OK", result.getReply());
+      assertTrue(result.isError());
 
       var state = testKit.getState();
-      assertEquals(year, state.year());
-      assertEquals(month, state.month());
-      assertEquals(day, state.day());
-      assertEquals(minuteOfDay, state.minuteOfDay());
+      assertEquals(TimeSlot.of(year, month, day, minuteOfDay, 1), state.slot());
       assertEquals(type, state.type());
       assertEquals(id, state.id());
 
-      var event = result.getNextEventOfType(ScheduleTimeEntity.ScheduleRejectedEvent.class);
-      assertEquals(year, event.year());
-      assertEquals(month, event.month());
-      assertEquals(day, event.day());
-      assertEquals(minuteOfDay, event.minuteOfDay());
-      assertEquals(type, event.type());
-      assertEquals(id2, event.id());
+      var events = result.getAllEvents();
+      assertEquals(0, events.size());
+    }
+  }
+
+  @Test
+  public void invalidTimeTest() {
+    var testKit = EventSourcedTestKit.of(ScheduleTimeEntity::new);
+
+    {
+      var command = new ScheduleTimeEntity.ScheduleCommand(2023, 2, 30, 540, "student", "student1");
+      var result = testKit.call(e -> e.schedule(command));
+      assertTrue(result.isError());
+      assertEquals(0, result.getAllEvents().size());
+    }
+
+    {
+      var command = new ScheduleTimeEntity.ScheduleCommand(2023, 1, 1, 1440, "student", "student1");
+      var result = testKit.call(e -> e.schedule(command));
+      assertTrue(result.isError());
+      assertEquals(0, result.getAllEvents().size());
+    }
+  }
+
+  @Test
+  public void scheduleAfterReleaseTest() {
+    var testKit = EventSourcedTestKit.of(ScheduleTimeEntity::new);
+
+    var year = Integer.valueOf(2023);
+    var month = Integer.valueOf(1);
+    var day = Integer.valueOf(1);
+    var minuteOfDay = Integer.valueOf(1);
+    var type = "student";
+
+    {
+      var command = new ScheduleTimeEntity.ScheduleCommand(year, month, day, minuteOfDay, type, "student1");
+      var result = testKit.call(e -> e.schedule(command));
+      assertEquals("OK", result.getReply());
+    }
+
+    {
+      var command = new ScheduleTimeEntity.ReleaseCommand(year, month, day, minuteOfDay, type, "student1");
+      var result = testKit.call(e -> e.release(command));
+      assertEquals("OK", result.getReply());
+    }
+
+    {
+      var command = new ScheduleTimeEntity.ScheduleCommand(year, month, day, minuteOfDay, type, "student2");
+      var result = testKit.call(e -> e.schedule(command));
+      assertEquals("OK", result.getReply());
+
+      var state = testKit.getState();
+      assertEquals(type, state.type());
+      assertEquals("student2", state.id());
+
+      var event = result.getNextEventOfType(ScheduleTimeEntity.ScheduledEventV2.class);
+      assertEquals("student2", event.id());
     }
   }
 
@@ -122,18 +172,12 @@ public class ScheduleTimeEntityTest {
       assertEquals("OK", result.getReply());
 
       var state = testKit.getState();
-      assertEquals(year, state.year());
-      assertEquals(month, state.month());
-      assertEquals(day, state.day());
-      assertEquals(minuteOfDay, state.minuteOfDay());
+      assertEquals(TimeSlot.of(year, month, day, minuteOfDay, 1), state.slot());
       assertEquals(null, state.type());
       assertEquals(null, state.id());
 
-      var event = result.getNextEventOfType(ScheduleTimeEntity.ReleasedEvent.class);
-      assertEquals(year, event.year());
-      assertEquals(month, event.month());
-      assertEquals(day, event.day());
-      assertEquals(minuteOfDay, event.minuteOfDay());
+      var event = result.getNextEventOfType(ScheduleTimeEntity.ReleasedEventV2.class);
+      assertEquals(LocalDate.of(2023, 1, 1).toEpochDay() * 24 * 60 + 1, event.epochMinute());
       assertEquals(type, event.type());
       assertEquals(id, event.id());
     }
@@ -164,10 +208,7 @@ public class ScheduleTimeEntityTest {
       assertEquals("OK", result.getReply());
 
       var state = testKit.getState();
-      assertEquals(year, state.year());
-      assertEquals(month, state.month());
-      assertEquals(day, state.day());
-      assertEquals(minuteOfDay, state.minuteOfDay());
+      assertEquals(TimeSlot.of(year, month, day, minuteOfDay, 1), state.slot());
       assertEquals(type, state.type());
       assertEquals(id, state.id());
 
@@ -175,4 +216,185 @@ public class ScheduleTimeEntityTest {
       assertEquals(0, events.size());
     }
   }
+
+  @Test
+  public void holdAndConfirmTest() {
+    var testKit = EventSourcedTestKit.of(ScheduleTimeEntity::new);
+    var expiresAt = Instant.now().plus(5, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.SECONDS);
+
+    {
+      var command = new ScheduleTimeEntity.HoldCommand(2023, 1, 1, 1, "student", "student1", expiresAt);
+      var result = testKit.call(e -> e.hold(command));
+      assertEquals("OK", result.getReply());
+
+      var event = result.getNextEventOfType(ScheduleTimeEntity.HeldEvent.class);
+      assertEquals(expiresAt.getEpochSecond(), event.expiresEpochSecond());
+
+      var state = testKit.getState();
+      assertEquals("student1", state.id());
+      assertEquals(expiresAt, state.heldUntil());
+    }
+
+    { // held slots are not available to others
+      var command = new ScheduleTimeEntity.HoldCommand(2023, 1, 1, 1, "student", "student2", expiresAt);
+      var result = testKit.call(e -> e.hold(command));
+      assertTrue(result.isError());
+    }
+
+    { // the timer of a hold that has not expired does nothing
+      var command = new ScheduleTimeEntity.ExpireHoldCommand(2023, 1, 1, 1, "student", "student1");
+      var result = testKit.call(e -> e.expireHold(command));
+      assertEquals("OK", result.getReply());
+      assertEquals(0, result.getAllEvents().size());
+    }
+
+    {
+      var command = new ScheduleTimeEntity.ConfirmHoldCommand(2023, 1, 1, 1, "student", "student1");
+      var result = testKit.call(e -> e.confirm(command));
+      assertEquals("OK", result.getReply());
+      result.getNextEventOfType(ScheduleTimeEntity.HoldConfirmedEvent.class);
+
+      var state = testKit.getState();
+      assertEquals("student1", state.id());
+      assertEquals(null, state.heldUntil());
+    }
+
+    { // confirmed slots do not expire
+      var command = new ScheduleTimeEntity.ExpireHoldCommand(2023, 1, 1, 1, "student", "student1");
+      var result = testKit.call(e -> e.expireHold(command));
+      assertEquals(0, result.getAllEvents().size());
+      assertEquals("student1", testKit.getState().id());
+    }
+  }
+
+  @Test
+  public void holdExpiredTest() {
+    var testKit = EventSourcedTestKit.of(ScheduleTimeEntity::new);
+    var expiredAt = Instant.now().minus(1, ChronoUnit.MINUTES);
+
+    {
+      var command = new ScheduleTimeEntity.HoldCommand(2023, 1, 1, 1, "student", "student1", expiredAt);
+      var result = testKit.call(e -> e.hold(command));
+      assertEquals("OK", result.getReply());
+    }
+
+    { // an expired hold cannot be confirmed
+      var command = new ScheduleTimeEntity.ConfirmHoldCommand(2023, 1, 1, 1, "student", "student1");
+      var result = testKit.call(e -> e.confirm(command));
+      assertTrue(result.isError());
+    }
+
+    { // an expired hold is released when another booking takes the slot before the timer has fired
+      var command = new ScheduleTimeEntity.ScheduleCommand(2023, 1, 1, 1, "student", "student2");
+      var result = testKit.call(e -> e.schedule(command));
+      assertEquals("OK", result.getReply());
+
+      var expired = result.getNextEventOfType(ScheduleTimeEntity.HoldExpiredEvent.class);
+      assertEquals("student1", expired.id());
+      var scheduled = result.getNextEventOfType(ScheduleTimeEntity.ScheduledEventV2.class);
+      assertEquals("student2", scheduled.id());
+
+      var state = testKit.getState();
+      assertEquals("student2", state.id());
+      assertEquals(null, state.heldUntil());
+    }
+
+    { // the late timer of the old hold leaves the new booking alone
+      var command = new ScheduleTimeEntity.ExpireHoldCommand(2023, 1, 1, 1, "student", "student1");
+      var result = testKit.call(e -> e.expireHold(command));
+      assertEquals(0, result.getAllEvents().size());
+      assertEquals("student2", testKit.getState().id());
+    }
+  }
+
+  @Test
+  public void expireHoldTest() {
+    var testKit = EventSourcedTestKit.of(ScheduleTimeEntity::new);
+    var expiredAt = Instant.now().minus(1, ChronoUnit.SECONDS);
+
+    testKit.call(e -> e.hold(new ScheduleTimeEntity.HoldCommand(2023, 1, 1, 1, "student", "student1", expiredAt)));
+
+    var result = testKit.call(e -> e.expireHold(new ScheduleTimeEntity.ExpireHoldCommand(2023, 1, 1, 1, "student", "student1")));
+    assertEquals("OK", result.getReply());
+    result.getNextEventOfType(ScheduleTimeEntity.HoldExpiredEvent.class);
+
+    var state = testKit.getState();
+    assertEquals(TimeSlot.of(2023, 1, 1, 1, 1), state.slot());
+    assertEquals(null, state.id());
+    assertEquals(null, state.heldUntil());
+    assertTrue(state.isAvailable());
+  }
+
+  @Test
+  public void upcastTest() {
+    var scheduled = new ScheduleTimeEntity.ScheduledEvent(2023, 1, 2, 540, "student", "student1").upcast();
+    assertEquals(LocalDate.of(2023, 1, 2).toEpochDay() * 24 * 60 + 540, scheduled.epochMinute());
+
+    var state = ScheduleTimeEntity.State.emptyState().on(scheduled);
+    assertEquals(TimeSlot.of(2023, 1, 2, 540, 1), state.slot());
+    assertEquals("student1", state.id());
+
+    var released = new ScheduleTimeEntity.ReleasedEvent(2023, 1, 2, 540, "student", "student1").upcast();
+    state = state.on(released);
+    assertEquals(null, state.id());
+  }
+
+  @Test
+  public void replayVersion1Test() {
+    var state = ScheduleTimeEntity.State.emptyState()
+        .on(new ScheduleTimeEntity.ScheduledEvent(2023, 1, 2, 540, "student", "student1"))
+        .on(new ScheduleTimeEntity.ReleasedEvent(2023, 1, 2, 540, "student", "student1").upcast());
+
+    // Version 1 journaled scheduling a released slot without taking it, replay must not take it either.
+    var replayed = state.on(new ScheduleTimeEntity.ScheduledEvent(2023, 1, 2, 540, "student", "student2"));
+    assertEquals(state, replayed);
+    assertTrue(replayed.isAvailable());
+
+    var scheduled = state.on(new ScheduleTimeEntity.ScheduledEventV2(TimeSlot.epochMinute(2023, 1, 2, 540), "student", "student2"));
+    assertEquals("student2", scheduled.id());
+  }
+
+  @Test
+  public void getScheduleTimeTest() {
+    var testKit = EventSourcedTestKit.of(ScheduleTimeEntity::new);
+    assertEquals(new ScheduleTimeEntity.ScheduleTime(null, null, null, null, null, null, null),
+        testKit.call(ScheduleTimeEntity::getScheduleTime).getReply());
+
+    testKit.call(e -> e.schedule(new ScheduleTimeEntity.ScheduleCommand(2023, 1, 2, 540, "student", "student1")));
+    assertEquals(new ScheduleTimeEntity.ScheduleTime(2023, 1, 2, 540, "student", "student1", null),
+        testKit.call(ScheduleTimeEntity::getScheduleTime).getReply());
+  }
+
+  // The reply keeps the fields it had before the state held a TimeSlot.
+  @Test
+  public void scheduleTimeJsonTest() throws Exception {
+    var json = JsonSupport.getObjectMapper().writeValueAsString(new ScheduleTimeEntity.ScheduleTime(2023, 1, 2, 540, "student", "student1", null));
+    assertEquals("{\"year\":2023,\"month\":1,\"day\":2,\"minuteOfDay\":540,\"type\":\"student\",\"id\":\"student1\"}", json);
+  }
+
+  @Test
+  public void readsSnapshotTest() throws Exception {
+    var objectMapper = JsonSupport.getObjectMapper();
+    var expected = new ScheduleTimeEntity.State(TimeSlot.of(2023, 1, 2, 540, 1), "student", "student1", null);
+
+    var snapshot = "{\"year\":2023,\"month\":1,\"day\":2,\"minuteOfDay\":540,\"type\":\"student\",\"id\":\"student1\"}";
+    assertEquals(expected, objectMapper.readValue(snapshot, ScheduleTimeEntity.State.class));
+
+    var emptySnapshot = "{\"year\":null,\"month\":null,\"day\":null,\"minuteOfDay\":null,\"type\":null,\"id\":null}";
+    assertEquals(ScheduleTimeEntity.State.emptyState(), objectMapper.readValue(emptySnapshot, ScheduleTimeEntity.State.class));
+
+    assertEquals(expected, objectMapper.readValue(objectMapper.writeValueAsString(expected), ScheduleTimeEntity.State.class));
+  }
+
+  @Test
+  public void isConflictTest() {
+    assertTrue(ScheduleTimeEntity.isConflict(new CompletionException(response(400, ScheduleTimeEntity.ALREADY_SCHEDULED))));
+    assertFalse(ScheduleTimeEntity.isConflict(response(400, "Hold expiry time is required")));
+    assertFalse(ScheduleTimeEntity.isConflict(response(503, ScheduleTimeEntity.ALREADY_SCHEDULED)));
+    assertFalse(ScheduleTimeEntity.isConflict(new CompletionException(new TimeoutException())));
+  }
+
+  private static WebClientResponseException response(int status, String body) {
+    return WebClientResponseException.create(status, "", HttpHeaders.EMPTY, body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+  }
 }
@@ -0,0 +1,125 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import kalix.javasdk.testkit.EventSourcedTestKit;
+
+public class StudentProgressEntityTest {
+  private final Instant first = Instant.parse("2023-01-02T09:00:00Z");
+  private final Instant second = Instant.parse("2023-01-09T09:00:00Z");
+
+  @Test
+  public void completedTest() {
+    var testKit = EventSourcedTestKit.of(StudentProgressEntity::new);
+    var command = new StudentProgressEntity.SessionCompletedCommand("student1", "course1", "session1", first, first.plusSeconds(90 * 60));
+
+    {
+      var result = testKit.call(e -> e.completed(command));
+      assertEquals("OK", result.getReply());
+
+      var event = result.getNextEventOfType(StudentProgressEntity.SessionCompletedEvent.class);
+      assertEquals(90, event.minutes());
+
+      var state = testKit.getState();
+      assertEquals("course1", state.courseId());
+      assertEquals(1, state.completedCount());
+      assertEquals(90, state.flownMinutes());
+      assertEquals(first, state.lastFlightTime());
+    }
+
+    { // idempotent test
+      var result = testKit.call(e -> e.completed(command));
+      assertEquals(0, result.getAllEvents().size());
+      assertEquals(1, testKit.getState().completedCount());
+    }
+  }
+
+  @Test
+  public void cancelledTest() {
+    var testKit = EventSourcedTestKit.of(StudentProgressEntity::new);
+    testKit.call(e -> e.completed(new StudentProgressEntity.SessionCompletedCommand("student1", "course1", "session1", first, first.plusSeconds(3600))));
+    testKit.call(e -> e.completed(new StudentProgressEntity.SessionCompletedCommand("student1", "course1", "session2", second, second.plusSeconds(3600))));
+
+    { // a session cancelled before it was flown
+      testKit.call(e -> e.cancelled(new StudentProgressEntity.SessionCancelledCommand("student1", "course1", "session3", second.plusSeconds(86400), null)));
+
+      var state = testKit.getState();
+      assertEquals(2, state.completedCount());
+      assertEquals(1, state.cancelledCount());
+      assertEquals(120, state.flownMinutes());
+    }
+
+    { // a completed session that is cancelled afterwards
+      testKit.call(e -> e.cancelled(new StudentProgressEntity.SessionCancelledCommand("student1", "course1", "session2", second, null)));
+
+      var state = testKit.getState();
+      assertEquals(1, state.completedCount());
+      assertEquals(2, state.cancelledCount());
+      assertEquals(60, state.flownMinutes());
+      assertEquals(first, state.lastFlightTime());
+    }
+
+    { // idempotent test
+      var result = testKit.call(e -> e.cancelled(new StudentProgressEntity.SessionCancelledCommand("student1", "course1", "session2", second, null)));
+      assertEquals(0, result.getAllEvents().size());
+      assertEquals(2, testKit.getState().cancelledCount());
+    }
+  }
+
+  @Test
+  public void oldSessionTest() {
+    var testKit = EventSourcedTestKit.of(StudentProgressEntity::new);
+    var later = first.plusSeconds(400L * 86400);
+    var completeFirst = new StudentProgressEntity.SessionCompletedCommand("student1", "course1", "session1", first, first.plusSeconds(3600));
+    testKit.call(e -> e.completed(new StudentProgressEntity.SessionCompletedCommand("student1", "course1", "session2", later, later.plusSeconds(3600))));
+    testKit.call(e -> e.completed(completeFirst));
+
+    var state = testKit.getState();
+    assertEquals(2, state.completedCount());
+    assertEquals(120, state.flownMinutes());
+    assertEquals(later, state.lastFlightTime());
+
+    { // redelivered, not counted again
+      var result = testKit.call(e -> e.completed(completeFirst));
+      assertEquals("OK", result.getReply());
+      assertEquals(0, result.getAllEvents().size());
+      assertEquals(120, testKit.getState().flownMinutes());
+    }
+  }
+
+  @Test
+  public void recentSessionsTest() {
+    var testKit = EventSourcedTestKit.of(StudentProgressEntity::new);
+    for (int i = 0; i <= StudentProgressEntity.RECENT_SESSIONS; i++) {
+      var startTime = first.plusSeconds(3600L * i);
+      var sessionId = "session" + i;
+      testKit.call(e -> e.completed(new StudentProgressEntity.SessionCompletedCommand("student1", "course1", sessionId, startTime,
+          startTime.plusSeconds(60))));
+    }
+    assertEquals(StudentProgressEntity.RECENT_SESSIONS, testKit.getState().sessions().size());
+    assertFalse(testKit.getState().sessions().containsKey("session0"));
+
+    { // a session that is no longer remembered is taken out with the minutes of its completion time
+      var result = testKit.call(e -> e.cancelled(new StudentProgressEntity.SessionCancelledCommand("student1", "course1", "session0", first,
+          first.plusSeconds(60))));
+      assertEquals(Integer.valueOf(1), result.getNextEventOfType(StudentProgressEntity.SessionCancelledEvent.class).completedMinutes());
+
+      var state = testKit.getState();
+      assertEquals(StudentProgressEntity.RECENT_SESSIONS, state.completedCount());
+      assertEquals(StudentProgressEntity.RECENT_SESSIONS, state.flownMinutes());
+      assertEquals(1, state.cancelledCount());
+    }
+
+    { // cancelling the last flight finds the one before among the remembered sessions
+      var last = first.plusSeconds(3600L * StudentProgressEntity.RECENT_SESSIONS);
+      testKit.call(e -> e.cancelled(new StudentProgressEntity.SessionCancelledCommand("student1", "course1",
+          "session" + StudentProgressEntity.RECENT_SESSIONS, last, null)));
+      assertEquals(last.minusSeconds(3600), testKit.getState().lastFlightTime());
+    }
+  }
+}
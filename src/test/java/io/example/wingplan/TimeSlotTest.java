@@ -0,0 +1,69 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+public class TimeSlotTest {
+  @Test
+  public void calendarFieldsMatchLocalDateTest() {
+    for (var date = LocalDate.of(1899, 12, 25); date.isBefore(LocalDate.of(2101, 1, 10)); date = date.plusDays(1)) {
+      var slot = TimeSlot.of(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), 1439, 1);
+      assertEquals(date.toEpochDay(), slot.epochDay());
+      assertEquals(date.getYear(), slot.year());
+      assertEquals(date.getMonthValue(), slot.month());
+      assertEquals(date.getDayOfMonth(), slot.day());
+      assertEquals(1439, slot.minuteOfDay());
+    }
+  }
+
+  @Test
+  public void invalidDateTest() {
+    assertTrue(TimeSlot.isValid(2024, 2, 29, 1439));
+    assertFalse(TimeSlot.isValid(2023, 2, 29, 0));
+    assertFalse(TimeSlot.isValid(2100, 2, 29, 0));
+    assertFalse(TimeSlot.isValid(2023, 4, 31, 0));
+    assertFalse(TimeSlot.isValid(2023, 13, 1, 0));
+    assertFalse(TimeSlot.isValid(2023, 1, 0, 0));
+    assertFalse(TimeSlot.isValid(2023, 1, 1, 1440));
+    assertFalse(TimeSlot.isValid(2023, 1, 1, -1));
+    assertFalse(TimeSlot.isValid(null, 1, 1, 0));
+    assertThrows(IllegalArgumentException.class, () -> TimeSlot.epochMinute(2023, 2, 30, 0));
+    assertThrows(IllegalArgumentException.class, () -> TimeSlot.epochMinute(2023, 1, 1, 1440));
+  }
+
+  @Test
+  public void instantTest() {
+    var slot = TimeSlot.of(Instant.parse("2023-01-01T09:00:30Z"), Duration.ofMinutes(60));
+    assertEquals(Instant.parse("2023-01-01T09:00:00Z"), slot.startTime());
+    assertEquals(61, slot.durationMinutes());
+    assertEquals("2023/1/1/540", slot.path());
+
+    var exact = TimeSlot.of(Instant.parse("2023-01-01T09:00:00Z"), Duration.ofMinutes(90));
+    assertEquals(Duration.ofMinutes(90), exact.duration());
+  }
+
+  @Test
+  public void splitByDayTest() {
+    var slot = TimeSlot.of(2023, 1, 31, 1410, 60);
+    var days = slot.splitByDay();
+    assertEquals(2, days.size());
+    assertEquals(TimeSlot.of(2023, 1, 31, 1410, 30), days.get(0));
+    assertEquals(TimeSlot.of(2023, 2, 1, 0, 30), days.get(1));
+  }
+
+  @Test
+  public void overlapsTest() {
+    var slot = TimeSlot.of(2023, 1, 1, 540, 60);
+    assertTrue(slot.overlaps(TimeSlot.of(2023, 1, 1, 599, 1)));
+    assertFalse(slot.overlaps(TimeSlot.of(2023, 1, 1, 600, 30)));
+    assertFalse(slot.overlaps(TimeSlot.of(2023, 1, 1, 480, 60)));
+  }
+}
@@ -0,0 +1,69 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class TrainingSessionBookingActionTest {
+  @Test
+  public void holdsWithinOneDayTest() {
+    var startTime = Instant.parse("2023-01-01T09:00:00Z");
+    var command = new TrainingSessionEntity.ScheduleCommand("student1", "instructor1", "aircraft1", startTime, Duration.ofMinutes(90));
+
+    var holds = TrainingSessionBookingAction.Hold.holdsFor(command);
+    assertEquals(3, holds.size());
+
+    var aircraft = holds.get(2);
+    assertEquals("aircraft", aircraft.resourceType());
+    assertEquals("aircraft1", aircraft.resourceId());
+    assertEquals(2023, aircraft.year());
+    assertEquals(1, aircraft.month());
+    assertEquals(1, aircraft.day());
+    assertEquals(540, aircraft.startMinute());
+    assertEquals(90, aircraft.durationMinutes());
+    assertEquals("/dayCalendar/aircraft/aircraft1/2023/1/1/reserve", aircraft.path("reserve"));
+  }
+
+  @Test
+  public void holdsAcrossMidnightTest() {
+    var startTime = Instant.parse("2023-01-31T23:30:00Z");
+    var command = new TrainingSessionEntity.ScheduleCommand("student1", "instructor1", "aircraft1", startTime, Duration.ofMinutes(60));
+
+    var holds = TrainingSessionBookingAction.Hold.holdsFor(command);
+    assertEquals(6, holds.size());
+
+    var first = holds.get(0);
+    assertEquals(31, first.day());
+    assertEquals(1410, first.startMinute());
+    assertEquals(30, first.durationMinutes());
+
+    var second = holds.get(3);
+    assertEquals(2, second.month());
+    assertEquals(1, second.day());
+    assertEquals(0, second.startMinute());
+    assertEquals(30, second.durationMinutes());
+  }
+
+  @Test
+  public void holdsRoundToWholeMinutesTest() {
+    var startTime = Instant.parse("2023-01-01T09:00:30Z");
+    var command = new TrainingSessionEntity.ScheduleCommand("student1", "instructor1", "aircraft1", startTime, Duration.ofMinutes(60));
+
+    var holds = TrainingSessionBookingAction.Hold.holdsFor(command);
+    assertEquals(540, holds.get(0).startMinute());
+    assertEquals(61, holds.get(0).durationMinutes());
+  }
+
+  @Test
+  public void coursePrioritiesTest() {
+    var priorities = TrainingSessionBookingAction.coursePriorities(Map.of("checkride-prep", 10, "ppl", -1));
+    assertEquals(Integer.valueOf(10), priorities.get("checkride-prep"));
+    assertEquals(Integer.valueOf(-1), priorities.get("ppl"));
+    assertEquals(0, TrainingSessionBookingAction.priorityFor("unlisted"));
+    assertEquals(0, TrainingSessionBookingAction.priorityFor(null));
+  }
+}
@@ -1,6 +1,7 @@
 package io.example.wingplan;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -29,7 +30,7 @@ public class TrainingSessionEntityTest {
       assertEquals(startTime, state.startTime());
       assertEquals(duration, state.duration());
 
-      var event = result.getNextEventOfType(TrainingSessionEntity.ScheduledEvent.class);
+      var event = result.getNextEventOfType(TrainingSessionEntity.ScheduledEventV2.class);
       assertEquals("student1", event.studentId());
       assertEquals("instructor1", event.instructorId());
       assertEquals("aircraft1", event.aircraftId());
@@ -53,6 +54,33 @@ public class TrainingSessionEntityTest {
     }
   }
 
+  @Test
+  public void invalidDurationTest() {
+    var testKit = EventSourcedTestKit.of(TrainingSessionEntity::new);
+
+    var startTime = Instant.now();
+    for (var duration : new Duration[] { null, Duration.ZERO, Duration.ofMinutes(-30) }) {
+      var command = new TrainingSessionEntity.ScheduleCommand("student1", "instructor1", "aircraft1", startTime, duration);
+      var result = testKit.call(e -> e.schedule(command));
+      assertTrue(result.isError());
+      assertEquals(0, result.getAllEvents().size());
+    }
+    assertTrue(testKit.getState().isEmpty());
+  }
+
+  @Test
+  public void invalidStartTimeTest() {
+    var testKit = EventSourcedTestKit.of(TrainingSessionEntity::new);
+
+    for (var startTime : new Instant[] { Instant.parse("1969-12-31T23:00:00Z"), TrainingSessionsView.Row.SORT_KEY_MAX }) {
+      var command = new TrainingSessionEntity.ScheduleCommand("student1", "instructor1", "aircraft1", startTime, Duration.ofMinutes(60));
+      var result = testKit.call(e -> e.schedule(command));
+      assertTrue(result.isError());
+      assertEquals(0, result.getAllEvents().size());
+    }
+    assertTrue(testKit.getState().isEmpty());
+  }
+
   @Test
   public void completeTest() {
     var testKit = EventSourcedTestKit.of(TrainingSessionEntity::new);
@@ -80,7 +108,7 @@ public class TrainingSessionEntityTest {
       assertEquals(duration, state.duration());
       assertEquals(completedTime, state.completedTime());
 
-      var event = result.getNextEventOfType(TrainingSessionEntity.CompletedEvent.class);
+      var event = result.getNextEventOfType(TrainingSessionEntity.CompletedEventV2.class);
       assertEquals("student1", event.studentId());
       assertEquals("instructor1", event.instructorId());
       assertEquals("aircraft1", event.aircraftId());
@@ -133,7 +161,7 @@ public class TrainingSessionEntityTest {
       assertEquals(duration, state.duration());
       assertEquals(cancelledTime, state.cancelledTime());
 
-      var event = result.getNextEventOfType(TrainingSessionEntity.CancelledEvent.class);
+      var event = result.getNextEventOfType(TrainingSessionEntity.CancelledEventV2.class);
       assertEquals("student1", event.studentId());
       assertEquals("instructor1", event.instructorId());
       assertEquals("aircraft1", event.aircraftId());
@@ -157,4 +185,61 @@ public class TrainingSessionEntityTest {
       assertEquals(0, events.size());
     }
   }
+
+  @Test
+  public void completeCancelledTest() {
+    var testKit = EventSourcedTestKit.of(TrainingSessionEntity::new);
+
+    var startTime = Instant.now();
+    var duration = Duration.ofHours(1);
+    var scheduleCommand = new TrainingSessionEntity.ScheduleCommand("student1", "instructor1", "aircraft1", startTime, duration);
+    var cancelCommand = new TrainingSessionEntity.CancelCommand("student1", "instructor1", "aircraft1", startTime, startTime, "weather");
+    var completeCommand = new TrainingSessionEntity.CompleteCommand("student1", "instructor1", "aircraft1", startTime, startTime.plus(duration));
+
+    {
+      var result = testKit.call(e -> e.schedule(scheduleCommand));
+      assertEquals("OK", result.getReply());
+    }
+
+    {
+      var result = testKit.call(e -> e.cancel(cancelCommand));
+      assertEquals("OK", result.getReply());
+    }
+
+    {
+      var result = testKit.call(e -> e.complete(completeCommand));
+      assertTrue(result.isError());
+      assertEquals("Training session has been cancelled", result.getError());
+
+      var state = testKit.getState();
+      assertEquals(null, state.completedTime());
+
+      var events = result.getAllEvents();
+      assertEquals(0, events.size());
+    }
+  }
+
+  @Test
+  public void upcastTest() {
+    var startTime = Instant.parse("2023-01-01T09:00:00.000123456Z");
+    var duration = Duration.ofMinutes(90).plusMillis(1);
+
+    var scheduled = new TrainingSessionEntity.ScheduledEvent("student1", "instructor1", "aircraft1", startTime, duration).upcast();
+    assertEquals(Long.valueOf(startTime.getEpochSecond()), scheduled.startEpochSecond());
+    assertEquals(123456, scheduled.startNano());
+    assertEquals(startTime, scheduled.startTime());
+    assertEquals(duration, scheduled.duration());
+
+    var completed = new TrainingSessionEntity.CompletedEvent("student1", "instructor1", "aircraft1", startTime, startTime.plus(duration)).upcast();
+    assertEquals(startTime.plus(duration), completed.completedTime());
+
+    var cancelled = new TrainingSessionEntity.CancelledEvent("student1", "instructor1", "aircraft1", null, null, "weather").upcast();
+    assertEquals(null, cancelled.startTime());
+    assertEquals(null, cancelled.cancelledTime());
+
+    var state = TrainingSessionEntity.State.emptyState().on(scheduled).on(completed);
+    assertEquals(startTime, state.startTime());
+    assertEquals(duration, state.duration());
+    assertEquals(startTime.plus(duration), state.completedTime());
+  }
 }
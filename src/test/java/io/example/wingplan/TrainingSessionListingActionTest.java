@@ -0,0 +1,55 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class TrainingSessionListingActionTest {
+  @Test
+  public void pageTest() {
+    var rows = IntStream.range(0, 4)
+        .mapToObj(i -> TrainingSessionsView.Row.of(TrainingSessionEntity.ScheduledEventV2.of("student1", "instructor1", "aircraft1",
+            Instant.ofEpochSecond((1000 + i * 60) * 60L), Duration.ofMinutes(60))))
+        .toList();
+
+    var page = TrainingSessionListingAction.Page.of(rows, 3);
+    assertEquals(3, page.sessions().size());
+    assertEquals(rows.get(2).sortKey(), TrainingSessionListingAction.decodeCursor(page.nextCursor()));
+
+    var last = TrainingSessionListingAction.Page.of(rows.subList(3, 4), 3);
+    assertEquals(1, last.sessions().size());
+    assertEquals(null, last.nextCursor());
+  }
+
+  @Test
+  public void queryTest() {
+    var cursor = TrainingSessionListingAction.encodeCursor("000000001000/student1/instructor1/aircraft1");
+    var query = TrainingSessionListingAction.PageQuery.of("instructor", "instructor1", "2023-01-01T00:00:00Z", null, "completed, cancelled", cursor, 10);
+    assertEquals(null, query.rejection());
+    assertEquals(List.of("completed", "cancelled"), query.statuses());
+    assertEquals("000000001000/student1/instructor1/aircraft1", query.after());
+    assertEquals(Long.valueOf(Long.MAX_VALUE), query.toMinute());
+    assertTrue(query.viewPath().startsWith("/trainingSessions/byInstructor/instructor1?after=000000001000%2Fstudent1"));
+    assertTrue(query.viewPath().endsWith("&statuses=completed&statuses=cancelled&limit=11"));
+  }
+
+  @Test
+  public void participantIdTest() {
+    var query = TrainingSessionListingAction.PageQuery.of("student", "anna b/2?x", null, null, null, null, 10);
+    assertTrue(query.viewPath().startsWith("/trainingSessions/byStudent/anna%20b%2F2%3Fx?after=&"));
+  }
+
+  @Test
+  public void invalidQueryTest() {
+    assertTrue(TrainingSessionListingAction.PageQuery.of("pilot", "p1", null, null, null, null, null).rejection() != null);
+    assertTrue(TrainingSessionListingAction.PageQuery.of("student", "s1", null, null, "flown", null, null).rejection() != null);
+    assertTrue(TrainingSessionListingAction.PageQuery.of("student", "s1", "yesterday", null, null, null, null).rejection() != null);
+    assertTrue(TrainingSessionListingAction.PageQuery.of("student", "s1", null, null, null, "not a cursor!", null).rejection() != null);
+  }
+}
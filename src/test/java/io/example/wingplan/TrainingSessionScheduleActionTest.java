@@ -0,0 +1,23 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+public class TrainingSessionScheduleActionTest {
+  private final TrainingSessionEntity.ScheduleCommand command = new TrainingSessionEntity.ScheduleCommand("student1", "instructor1", "aircraft1",
+      Instant.parse("2023-01-01T09:00:00Z"), Duration.ofMinutes(90));
+
+  @Test
+  public void isSameSessionTest() {
+    assertTrue(TrainingSessionScheduleAction.isSameSession("student1", "instructor1", "aircraft1", "2023-01-01T09:00:00Z", command));
+    assertTrue(TrainingSessionScheduleAction.isSameSession("student1", "instructor1", "aircraft1", "2023-01-01T09:00:00.000Z", command));
+    assertFalse(TrainingSessionScheduleAction.isSameSession("student2", "instructor1", "aircraft1", "2023-01-01T09:00:00Z", command));
+    assertFalse(TrainingSessionScheduleAction.isSameSession("student1", "instructor1", "aircraft1", "2023-01-01T09:30:00Z", command));
+    assertFalse(TrainingSessionScheduleAction.isSameSession("student1", "instructor1", "aircraft1", "tomorrow", command));
+  }
+}
@@ -0,0 +1,55 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+public class TrainingSessionsViewTest {
+  @Test
+  public void rowTest() {
+    var startTime = Instant.parse("2023-01-31T23:30:20.5Z");
+    var event = TrainingSessionEntity.ScheduledEventV2.of("student1", "instructor1", "aircraft1", startTime, Duration.ofMinutes(60));
+
+    var row = TrainingSessionsView.Row.of(event);
+    assertEquals(2023, row.year());
+    assertEquals(1, row.month());
+    assertEquals(31, row.day());
+    assertEquals(startTime, row.startTime());
+    assertEquals(61, row.durationMinutes());
+    assertEquals("scheduled", row.status());
+
+    var cancelled = row.withStatus("cancelled", "weather");
+    assertEquals("cancelled", cancelled.status());
+    assertEquals("weather", cancelled.reason());
+    assertEquals(row.startTime(), cancelled.startTime());
+    assertEquals(row.startEpochMinute(), cancelled.startEpochMinute());
+    assertEquals(row.sortKey(), cancelled.sortKey());
+  }
+
+  @Test
+  public void completedWithoutRowTest() {
+    var startTime = Instant.parse("2023-01-01T09:00:00Z");
+    var view = new TrainingSessionsView();
+
+    assertNotNull(view.on(TrainingSessionEntity.CompletedEventV2.of("student1", "instructor1", "aircraft1", startTime, startTime.plusSeconds(3600))));
+    assertNotNull(view.on(TrainingSessionEntity.CancelledEventV2.of("student1", "instructor1", "aircraft1", startTime, startTime, "weather")));
+  }
+
+  @Test
+  public void sortKeyTest() {
+    var startTime = Instant.parse("2023-01-01T09:00:00Z");
+    var early = TrainingSessionEntity.ScheduledEventV2.of("student1", "instructor1", "aircraft1", startTime.minusSeconds(60), Duration.ofMinutes(60));
+    var late = TrainingSessionEntity.ScheduledEventV2.of("student1", "instructor1", "aircraft1", startTime, Duration.ofMinutes(60));
+    var rebooked = TrainingSessionEntity.ScheduledEventV2.of("student1", "instructor2", "aircraft1", startTime, Duration.ofMinutes(60));
+    var sameMinute = TrainingSessionEntity.ScheduledEventV2.of("student1", "instructor1", "aircraft1", startTime.plusMillis(1500), Duration.ofMinutes(60));
+
+    assertTrue(TrainingSessionsView.Row.sortKey(early).compareTo(TrainingSessionsView.Row.sortKey(late)) < 0);
+    assertTrue(TrainingSessionsView.Row.sortKey(late).compareTo(TrainingSessionsView.Row.sortKey(rebooked)) < 0);
+    assertTrue(TrainingSessionsView.Row.sortKey(late).compareTo(TrainingSessionsView.Row.sortKey(sameMinute)) < 0);
+  }
+}
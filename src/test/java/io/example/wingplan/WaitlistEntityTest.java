@@ -0,0 +1,92 @@
+package io.example.wingplan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import kalix.javasdk.testkit.EventSourcedTestKit;
+
+public class WaitlistEntityTest {
+  private final Instant requestTime = Instant.parse("2023-01-01T08:00:00Z");
+
+  @Test
+  public void priorityOrderTest() {
+    var testKit = EventSourcedTestKit.of(WaitlistEntity::new);
+
+    testKit.call(e -> e.join(join("request1", 0, requestTime, 540, 60)));
+    testKit.call(e -> e.join(join("request2", 5, requestTime.plusSeconds(60), 540, 60)));
+    testKit.call(e -> e.join(join("request3", 0, requestTime.minusSeconds(60), 600, 60)));
+    testKit.call(e -> e.join(join("request4", 5, requestTime, 720, 60)));
+
+    var entries = testKit.getState().entries();
+    assertEquals(4, entries.size());
+    assertEquals("request4", entries.get(0).requestId());
+    assertEquals("request2", entries.get(1).requestId());
+    assertEquals("request3", entries.get(2).requestId());
+    assertEquals("request1", entries.get(3).requestId());
+
+    { // idempotent test
+      var result = testKit.call(e -> e.join(join("request1", 9, requestTime, 540, 60)));
+      assertEquals("OK", result.getReply());
+      assertEquals(0, result.getAllEvents().size());
+    }
+  }
+
+  @Test
+  public void candidatesTest() {
+    var testKit = EventSourcedTestKit.of(WaitlistEntity::new);
+
+    testKit.call(e -> e.join(join("request1", 0, requestTime, 540, 60)));
+    testKit.call(e -> e.join(join("request2", 1, requestTime, 570, 60)));
+    testKit.call(e -> e.join(join("request3", 2, requestTime, 660, 60)));
+
+    var candidates = testKit.getState().candidates(540, 60);
+    assertEquals(2, candidates.size());
+    assertEquals("request2", candidates.get(0).requestId());
+    assertEquals("request1", candidates.get(1).requestId());
+
+    assertTrue(testKit.getState().candidates(600, 60).stream().noneMatch(c -> c.requestId().equals("request1")));
+  }
+
+  @Test
+  public void ownReleaseTest() {
+    var testKit = EventSourcedTestKit.of(WaitlistEntity::new);
+
+    testKit.call(e -> e.join(join("request1", 0, requestTime, 540, 60)));
+    testKit.call(e -> e.join(join("request2", 1, requestTime, 570, 60)));
+
+    // Released by the compensation of request1's own attempt, nothing new to offer.
+    assertTrue(testKit.getState().candidates("request1", 540, 60).isEmpty());
+    assertEquals(2, testKit.getState().candidates("session9", 540, 60).size());
+  }
+
+  @Test
+  public void leaveTest() {
+    var testKit = EventSourcedTestKit.of(WaitlistEntity::new);
+
+    testKit.call(e -> e.join(join("request1", 0, requestTime, 540, 60)));
+
+    {
+      var result = testKit.call(e -> e.leave(new WaitlistEntity.LeaveCommand("aircraft", "aircraft1", 2023, 1, 1, "request1", "scheduled")));
+      assertEquals("OK", result.getReply());
+      var event = result.getNextEventOfType(WaitlistEntity.LeftEvent.class);
+      assertEquals("scheduled", event.reason());
+      assertEquals(0, testKit.getState().entries().size());
+    }
+
+    { // idempotent test
+      var result = testKit.call(e -> e.leave(new WaitlistEntity.LeaveCommand("aircraft", "aircraft1", 2023, 1, 1, "request1", "scheduled")));
+      assertEquals(0, result.getAllEvents().size());
+    }
+  }
+
+  private static WaitlistEntity.JoinCommand join(String requestId, int priority, Instant requestTime, int startMinute, int durationMinutes) {
+    var startTime = Instant.parse("2023-01-01T00:00:00Z").plus(Duration.ofMinutes(startMinute));
+    var session = new TrainingSessionEntity.ScheduleCommand("student-" + requestId, "instructor1", "aircraft1", startTime, Duration.ofMinutes(durationMinutes));
+    return new WaitlistEntity.JoinCommand("aircraft", "aircraft1", 2023, 1, 1, requestId, session, priority, requestTime, startMinute, durationMinutes);
+  }
+}